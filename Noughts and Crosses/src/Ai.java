@@ -1,156 +1,202 @@
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@code Ai} class simulates an AI that makes moves in a Tic-Tac-Toe game by analyzing
- * possible winning or blocking moves or by making random guesses within certain constraints.
+ * possible winning or blocking moves ({@link HeuristicStrategy}) or by picking a random free
+ * square ({@link RandomStrategy}), on a board of any size.
+ * It can also hand the decision to a {@link MinimaxAi} that searches the whole game tree.
+ * Monte Carlo Tree Search ({@link MctsAi}) and iterative deepening ({@link DeepeningAi}) play
+ * boards of any size within a time budget; minimax and the tablebase only know the classic 3x3
+ * board, and on larger boards they play a random free square.
+ * <p>
+ * An {@code Ai} is itself a {@link Strategy}, so it can be handed to anything that plays
+ * strategies and switched between levels while it plays.
  */
-public class Ai { 
+public class Ai implements Strategy { 
 	
 	/**
-	 * Indicates whether the AI has finished making a valid move.
+	 * Level that plays the one-move win/block heuristic with random guesses.
 	 */
-	private Boolean set = false;
+	public static final int HEURISTIC = 0;
 	
 	/**
-	 * Indicates whether the AI has successfully performed an action during its turn.
-	 * If false, the AI generates a random number to guess a square.
+	 * Level that searches the whole game tree and never loses.
 	 */
-	private Boolean done = false;
+	public static final int MINIMAX = 1;
 	
 	/**
-	 * Stores a randomly generated number between 0 and 8 to represent a square on the board.
+	 * Level that looks the perfect move up in the precomputed {@link Tablebase}.
 	 */
-	private int ranNum = 0;
+	public static final int PERFECT = 2;
 	
 	/**
-	 * Tracks how many guesses the AI has made. If the count exceeds 1000, it stops guessing
-	 * to prevent endless looping.
+	 * Level that plays a random free square, used as a baseline when simulating games.
 	 */
-	private int count = 0;
+	public static final int RANDOM = 3;
 	
-	Random rand = new Random();
+	/**
+	 * Level that uses Monte Carlo Tree Search, which works on boards of any size.
+	 */
+	public static final int MCTS = 4;
+	
+	/**
+	 * Level that searches deeper and deeper until its time budget runs out, on boards of any size.
+	 */
+	public static final int DEEPENING = 5;
+	
+	/**
+	 * Names of the levels, indexed by level.
+	 */
+	public static final String[] LEVEL_NAMES = {"heuristic", "minimax", "perfect", "random", "mcts", "deepening"};
+	
+	/**
+	 * The level the AI is playing at, one of the level constants such as {@link #HEURISTIC}.
+	 * It is changed on the Event Dispatch Thread while moves are worked out on background
+	 * threads, so it is volatile rather than guarded by the lock; a move or ponder can hold the
+	 * lock for a whole time budget, and the window must not wait for that.
+	 */
+	private volatile int level = HEURISTIC;
+	
+	/**
+	 * The search used when playing at the {@link #MINIMAX} level.
+	 */
+	private MinimaxAi minimax = new MinimaxAi();
+	
+	/**
+	 * The search used when playing at the {@link #MCTS} level, created the first time it is needed.
+	 */
+	private MctsAi mcts;
+	
+	/**
+	 * How long the searches that run until a deadline may take per move, in milliseconds.
+	 */
+	private long budgetMillis = 100;
+	
+	/**
+	 * The search used when playing at the {@link #DEEPENING} level.
+	 */
+	private DeepeningAi deepening = new DeepeningAi(budgetMillis);
+	
+	/**
+	 * The strategy used when playing at the {@link #HEURISTIC} level.
+	 */
+	private final Strategy heuristic = new HeuristicStrategy();
+	
+	/**
+	 * The strategy used when playing at the {@link #RANDOM} level, and on boards the
+	 * {@link #MINIMAX} and {@link #PERFECT} levels do not know.
+	 */
+	private final Strategy random = new RandomStrategy();
+	
+	/**
+	 * Counts the calls to {@link #stopPondering}, so pondering asked for before the latest one
+	 * can tell that its position is out of date.
+	 */
+	private final AtomicInteger ponderGeneration = new AtomicInteger();
 
 	/**
-	 * Analyzes the game board to find a winning or blocking move. If no such move is found,
-	 * the AI makes a random move. The method updates the symbols on the board and returns
-	 * the modified board.
+	 * Sets the level the AI plays at.
 	 * 
-	 * @param myTitles An array of {@code Title} objects representing the game board tiles.
-	 * @return An updated array of {@code Title} objects with the AI's move applied.
+	 * @param newLevel One of the level constants, such as {@link #HEURISTIC}.
 	 */
-	public Title[] blockAndWinsMove(Title[] myTitles) {	
-		
-		// Check for winning or blocking moves in rows
-		for (int i = 0; i < 9; i += 3) { 			
-			if (!done && myTitles[i].getSymbol() == myTitles[1 + i].getSymbol() 
-				&& myTitles[i].getSymbol() != '-' && myTitles[2 + i].getSymbol() == '-') {
-				myTitles[2 + i].setSymbol('x'); 
-				done = true;
-			}
-					
-			if (!done && myTitles[i].getSymbol() == myTitles[2 + i].getSymbol() 
-				&& myTitles[i].getSymbol() != '-' && myTitles[1 + i].getSymbol() == '-') {
-				myTitles[1 + i].setSymbol('x');
-				done = true;
-			}
-					
-			if (!done && myTitles[1 + i].getSymbol() == myTitles[2 + i].getSymbol() 
-				&& myTitles[1 + i].getSymbol() != '-' && myTitles[i].getSymbol() == '-') {
-				myTitles[i].setSymbol('x');
-				done = true;
-			}	
-		}	
-		
-		// Check for winning or blocking moves in columns
-		for (int i = 0; i < 3; i += 1) {
-			if (!done && myTitles[i].getSymbol() == myTitles[3 + i].getSymbol() 
-				&& myTitles[i].getSymbol() != '-' && myTitles[6 + i].getSymbol() == '-') {
-				myTitles[6 + i].setSymbol('x');	
-				done = true;
-			}
-		
-			if (!done && myTitles[i].getSymbol() == myTitles[6 + i].getSymbol() 
-				&& myTitles[i].getSymbol() != '-' && myTitles[3 + i].getSymbol() == '-') {
-				myTitles[3 + i].setSymbol('x');	
-				done = true;
-			}
-			
-			if (!done && myTitles[3 + i].getSymbol() == myTitles[6 + i].getSymbol() 
-				&& myTitles[3 + i].getSymbol() != '-' && myTitles[i].getSymbol() == '-') {
-				myTitles[i].setSymbol('x');	
-				done = true;
-			}
-		}
-		
-		// Check for winning or blocking moves in diagonals
-		if (!done && myTitles[0].getSymbol() == myTitles[4].getSymbol() 
-			&& myTitles[0].getSymbol() != '-' && myTitles[8].getSymbol() == '-') {
-			myTitles[8].setSymbol('x');
-			done = true;
+	public void setLevel(int newLevel) {
+		level = newLevel;
+	}
+	
+	/**
+	 * Returns the level the AI plays at.
+	 * 
+	 * @return One of the level constants, such as {@link #HEURISTIC}.
+	 */
+	public int getLevel() {
+		return level;
+	}
+	
+	/**
+	 * Sets how long the levels that search until a deadline ({@link #MCTS} and
+	 * {@link #DEEPENING}) may think about each move.
+	 * 
+	 * @param millis The budget per move in milliseconds.
+	 */
+	public synchronized void setTimeBudget(long millis) {
+		budgetMillis = millis;
+		deepening.setBudget(millis);
+		if (mcts != null) {
+			mcts.setBudget(millis);
 		}
-		
-		if (!done && myTitles[0].getSymbol() == myTitles[8].getSymbol() 
-			&& myTitles[0].getSymbol() != '-' && myTitles[4].getSymbol() == '-') {
-			myTitles[4].setSymbol('x');
-			done = true;
+	}
+	
+	/**
+	 * Chooses a move for the given player using the AI's current level. The AI may be asked
+	 * from a background thread, so only one move is worked out at a time.
+	 * 
+	 * @param board The current state of the game board.
+	 * @param symbol The symbol the AI is playing ('x' or 'o').
+	 * @return The square the AI wants to play, or -1 if it could not find one.
+	 */
+	@Override
+	public synchronized int move(BoardView board, char symbol) {
+		int current = level; // Read once, so a level change never splits a move
+		if (current == MCTS) {
+			if (mcts == null) {
+				mcts = new MctsAi(Runtime.getRuntime().availableProcessors(), budgetMillis);
+			}
+			return mcts.bestMove(board, symbol);
 		}
-		
-		if (!done && myTitles[4].getSymbol() == myTitles[8].getSymbol() 
-			&& myTitles[4].getSymbol() != '-' && myTitles[0].getSymbol() == '-') {
-			myTitles[0].setSymbol('x');
-			done = true;
+		if (current == DEEPENING) {
+			return deepening.bestMove(board, symbol);
 		}
 		
-		if (!done && myTitles[2].getSymbol() == myTitles[4].getSymbol() 
-			&& myTitles[2].getSymbol() != '-' && myTitles[6].getSymbol() == '-') {
-			myTitles[6].setSymbol('x');
-			done = true;
+		if (current == HEURISTIC) {
+			return heuristic.move(board, symbol);
 		}
 		
-		if (!done && myTitles[4].getSymbol() == myTitles[6].getSymbol() 
-			&& myTitles[4].getSymbol() != '-' && myTitles[2].getSymbol() == '-') {
-			myTitles[2].setSymbol('x');
-			done = true;
+		if (current == RANDOM || !(board instanceof Bitboard)) {
+			return random.move(board, symbol);
 		}
 		
-		if (!done && myTitles[2].getSymbol() == myTitles[6].getSymbol() 
-			&& myTitles[2].getSymbol() != '-' && myTitles[4].getSymbol() == '-') {
-			myTitles[4].setSymbol('x');
-			done = true;
+		Bitboard classic = (Bitboard) board;
+		if (current == MINIMAX) {
+			return minimax.bestMove(classic, symbol);
 		}
+		return Tablebase.bestMove(classic, symbol);
+	}
 	
-		// Make a random move if no winning or blocking moves are found
-		if (!done) {
-			while (!set) {
-				ranNum = rand.nextInt(9); // Random number between 0 and 8
-				
-				if (myTitles[ranNum].getSymbol() == '-') {
-					myTitles[ranNum].setSymbol('x');
-					set = true;
-				}
-				
-				count++;
-				
-				if (count > 1000) {
-					set = true;
-				}
-			}
+	/**
+	 * Lets the AI think about its next move while the opponent decides theirs. Only the
+	 * {@link #DEEPENING} level ponders; it caches an answer to each likely reply so that
+	 * {@link #move} can return it at once. Runs until {@link #stopPondering} is called or there is
+	 * nothing left to ponder, so it should be called from a background thread.
+	 * <p>
+	 * The pondering may have to wait for a move being worked out. If {@link #stopPondering} was
+	 * called since the generation was read, the position is out of date and nothing is pondered.
+	 * 
+	 * @param board The position the opponent is to move from.
+	 * @param opponent The opponent's symbol ('x' or 'o').
+	 * @param generation The {@link #ponderGeneration()} when the pondering was asked for.
+	 */
+	public synchronized void ponder(BoardView board, char opponent, int generation) {
+		if (level == DEEPENING && generation == ponderGeneration.get()) {
+			deepening.ponder(board, opponent);
 		}
+	}
 	
-		// Reset variables for the next turn
-		done = false;
-		set = false;
-		count = 0;
-		
-		return myTitles;
+	/**
+	 * Stops pondering as soon as possible, so that {@link #move} does not have to wait for it.
+	 * Unlike the other methods this does not wait for the AI, so it can be called from any thread.
+	 */
+	public void stopPondering() {
+		ponderGeneration.incrementAndGet();
+		deepening.stopPondering();
 	}
-
+	
 	/**
-	 * Resets all internal variables used by the AI.
+	 * Returns the current pondering generation, to pass to {@link #ponder} so it can tell whether
+	 * it has been stopped in the meantime. Can be called from any thread.
+	 * 
+	 * @return The generation.
 	 */
-	public void reset() {
-		done = false;	
-		set = false;
-		count = 0;
+	public int ponderGeneration() {
+		return ponderGeneration.get();
 	}
 }
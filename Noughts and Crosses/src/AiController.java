@@ -0,0 +1,124 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+
+/**
+ * The {@code AiController} class is a side played by an {@link Ai}. The AI thinks on a
+ * background thread and its move is played back on the Event Dispatch Thread, so the window never
+ * freezes. While the other side decides, the AI ponders their likely moves on the same threads.
+ */
+public class AiController implements Controller {
+
+    /**
+     * Threads the AI thinks on, shared by every controller. They are daemon threads so a pending
+     * AI turn never keeps the program alive.
+     */
+    private static final ExecutorService AI_THREADS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ai-turn");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Longest the AI may think about a move, in milliseconds. Levels that search until a deadline
+     * answer when it expires; the others answer as soon as they have a move.
+     */
+    static final long THINKING_MILLIS = 50;
+
+    /**
+     * The AI choosing the moves.
+     */
+    private final Ai ai = new Ai();
+
+    /**
+     * The AI turn that is still being worked out, or {@code null} when there is none.
+     * Only read and written on the Event Dispatch Thread.
+     */
+    private CompletableFuture<Void> pendingAiTurn;
+
+    /**
+     * Counts AI turns so a turn that was cancelled can recognise itself and do nothing.
+     * Only read and written on the Event Dispatch Thread.
+     */
+    private int aiTurnId = 0;
+
+    /**
+     * Creates a side played by the AI at the {@link Ai#HEURISTIC} level.
+     */
+    public AiController() {
+        ai.setTimeBudget(THINKING_MILLIS);
+    }
+
+    /**
+     * Sets how strongly the AI plays.
+     * 
+     * @param level One of the {@link Ai} level constants, such as {@link Ai#HEURISTIC}.
+     */
+    public void setLevel(int level) {
+        ai.setLevel(level);
+    }
+
+    /**
+     * Starts the AI's turn. The AI works on a snapshot of the board in a background thread for at
+     * most {@link #THINKING_MILLIS}. Once it has a move, the move is played on the Event Dispatch
+     * Thread, where the game checks for a winner and switches the turn.
+     */
+    @Override
+    public void turnStarted(final Game game, final char symbol) {
+        ai.stopPondering(); // The AI's turn must not wait for it to finish pondering
+        final int turnId = ++aiTurnId;
+        final Board snapshot = game.getBoard().copy();
+
+        pendingAiTurn = CompletableFuture.supplyAsync(() -> ai.move(snapshot, symbol), AI_THREADS)
+                .handleAsync((chosen, error) -> {
+                    if (turnId != aiTurnId) {
+                        return null; // The turn was cancelled while the AI was thinking
+                    }
+                    pendingAiTurn = null;
+
+                    if (error != null) {
+                        System.out.println("The AI could not pick a move: " + error.getMessage());
+                        game.playAiMove(-1);
+                    } else {
+                        game.playAiMove(chosen);
+                    }
+                    ponder(game);
+                    return null;
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Lets the AI think about the other side's likely moves in the background until they make one.
+     * Only the {@link Ai#DEEPENING} level ponders, so at any other level nothing is copied or
+     * handed to a thread.
+     * 
+     * @param game The game the AI just moved in.
+     */
+    private void ponder(Game game) {
+        if (ai.getLevel() != Ai.DEEPENING) {
+            return;
+        }
+        final Board snapshot = game.getBoard().copy();
+        final char opponent = game.getTurn();
+        final int generation = ai.ponderGeneration(); // A later turn or cancel makes it stale
+        if (snapshot.freeCount() > 0) {
+            AI_THREADS.execute(() -> ai.ponder(snapshot, opponent, generation));
+        }
+    }
+
+    @Override
+    public boolean takesClicks() {
+        return false;
+    }
+
+    @Override
+    public void cancel() {
+        ai.stopPondering();
+        if (pendingAiTurn != null) {
+            pendingAiTurn.cancel(false);
+            pendingAiTurn = null;
+            aiTurnId++;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * The {@code Bitboard} class holds the state of a 3x3 Noughts and Crosses board as two
+ * 9-bit masks, one per player. Bit {@code i} of a mask is set when that player owns square
+ * {@code i}, using the same 0-8 numbering as the {@link BoardCanvas} (left to right, top to bottom).
+ * Winner checks and the AI's win/block search run against precomputed line masks, so the
+ * Swing board only ever mirrors this state and is never read back. It is the classic 3x3
+ * case of a {@link Board}; larger boards use {@link MnkBoard}.
+ */
+public class Bitboard implements Board {
+
+    /**
+     * Mask with all nine squares of the board set.
+     */
+    public static final int FULL = 0x1FF;
+
+    /**
+     * The eight winning lines, in the order the AI has always scanned them:
+     * rows, then columns, then the two diagonals.
+     */
+    public static final int[] LINES = {
+        0x007, 0x038, 0x1C0, // rows
+        0x049, 0x092, 0x124, // columns
+        0x111, 0x054         // diagonals
+    };
+
+    /**
+     * {@code CELL_LINES[c]} holds the winning lines that pass through square {@code c}.
+     */
+    private static final int[][] CELL_LINES = new int[9][];
+
+    static {
+        for (int cell = 0; cell < 9; cell++) {
+            int count = 0;
+            for (int i = 0; i < LINES.length; i++) {
+                if ((LINES[i] & (1 << cell)) != 0) {
+                    count++;
+                }
+            }
+            CELL_LINES[cell] = new int[count];
+            count = 0;
+            for (int i = 0; i < LINES.length; i++) {
+                if ((LINES[i] & (1 << cell)) != 0) {
+                    CELL_LINES[cell][count++] = LINES[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code SELECT[mask << 4 | n]} is the square of the {@code n}th set bit of a 9-bit mask,
+     * counting from bit 0, or -1 if the mask has fewer bits set.
+     */
+    private static final byte[] SELECT = new byte[(FULL + 1) << 4];
+
+    static {
+        for (int mask = 0; mask <= FULL; mask++) {
+            int n = 0;
+            for (int cell = 0; cell < 16; cell++) {
+                SELECT[(mask << 4) | cell] = -1;
+            }
+            for (int cell = 0; cell < 9; cell++) {
+                if ((mask & (1 << cell)) != 0) {
+                    SELECT[(mask << 4) | n++] = (byte) cell;
+                }
+            }
+        }
+    }
+
+    /**
+     * Squares owned by player X.
+     */
+    private int x;
+
+    /**
+     * Squares owned by player O.
+     */
+    private int o;
+
+    /**
+     * Creates an empty board.
+     */
+    public Bitboard() {
+    }
+
+    /**
+     * Creates a copy of another board, for example so an AI can work on a snapshot of it.
+     *
+     * @param other The board to copy.
+     */
+    public Bitboard(Bitboard other) {
+        x = other.x;
+        o = other.o;
+    }
+
+    @Override
+    public int width() {
+        return 3;
+    }
+
+    @Override
+    public int height() {
+        return 3;
+    }
+
+    @Override
+    public int k() {
+        return 3;
+    }
+
+    @Override
+    public int cells() {
+        return 9;
+    }
+
+    @Override
+    public Board copy() {
+        return new Bitboard(this);
+    }
+
+    @Override
+    public void copyFrom(Board other) {
+        Bitboard board = (Bitboard) other;
+        x = board.x;
+        o = board.o;
+    }
+
+    /**
+     * Returns the mask of squares owned by the given player.
+     *
+     * @param symbol The player's symbol ('x' or 'o').
+     * @return The player's 9-bit mask, or 0 for any other symbol.
+     */
+    public int mask(char symbol) {
+        if (symbol == 'x') {
+            return x;
+        }
+        if (symbol == 'o') {
+            return o;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the mask of squares that nobody has played in yet.
+     *
+     * @return The 9-bit mask of free squares.
+     */
+    public int free() {
+        return FULL & ~(x | o);
+    }
+
+    /**
+     * Checks whether a square is still free.
+     *
+     * @param cell The square index (0 to 8).
+     * @return true if neither player owns the square.
+     */
+    @Override
+    public boolean isFree(int cell) {
+        return ((x | o) & (1 << cell)) == 0;
+    }
+
+    @Override
+    public int freeCount() {
+        return Integer.bitCount(free());
+    }
+
+    @Override
+    public int nthFree(int n) {
+        return select(free(), n);
+    }
+
+    /**
+     * Returns the position of the {@code n}th set bit of a 9-bit mask with a single table lookup.
+     *
+     * @param mask A 9-bit mask.
+     * @param n Which set bit to find, counting from 0 at the lowest bit.
+     * @return The bit's position (0 to 8), or -1 if the mask has too few bits set.
+     */
+    public static int select(int mask, int n) {
+        if (n < 0 || n > 8) {
+            return -1;
+        }
+        return SELECT[(mask << 4) | n];
+    }
+
+    /**
+     * Checks whether every square on the board has been played.
+     *
+     * @return true if there are no free squares left.
+     */
+    @Override
+    public boolean isFull() {
+        return (x | o) == FULL;
+    }
+
+    /**
+     * Returns the symbol on a square.
+     *
+     * @param cell The square index (0 to 8).
+     * @return 'x', 'o', or '-' for a free square.
+     */
+    @Override
+    public char get(int cell) {
+        int bit = 1 << cell;
+        if ((x & bit) != 0) {
+            return 'x';
+        }
+        if ((o & bit) != 0) {
+            return 'o';
+        }
+        return '-';
+    }
+
+    /**
+     * Sets the symbol on a square, replacing whatever was there before.
+     *
+     * @param cell   The square index (0 to 8).
+     * @param symbol 'x', 'o', or '-' to free the square.
+     */
+    @Override
+    public void set(int cell, char symbol) {
+        int bit = 1 << cell;
+        x &= ~bit;
+        o &= ~bit;
+        if (symbol == 'x') {
+            x |= bit;
+        } else if (symbol == 'o') {
+            o |= bit;
+        }
+    }
+
+    /**
+     * Gives every square on the board to one player, as happens when a game is won.
+     *
+     * @param symbol The winning player's symbol ('x' or 'o').
+     */
+    @Override
+    public void fill(char symbol) {
+        x = (symbol == 'x') ? FULL : 0;
+        o = (symbol == 'o') ? FULL : 0;
+    }
+
+    /**
+     * Clears every square on the board.
+     */
+    @Override
+    public void clear() {
+        x = 0;
+        o = 0;
+    }
+
+    /**
+     * Checks whether the symbol on a square completes one of the lines through that square.
+     *
+     * @param cell The square index (0 to 8), normally the square just played.
+     * @return true if the square's owner has three in a row through it.
+     */
+    @Override
+    public boolean wins(int cell) {
+        int m = mask(get(cell));
+        int[] lines = CELL_LINES[cell];
+        for (int i = 0; i < lines.length; i++) {
+            if ((m & lines[i]) == lines[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a player owns a complete row, column or diagonal.
+     *
+     * @param symbol The player's symbol ('x' or 'o').
+     * @return true if the player has three in a row.
+     */
+    public boolean hasWon(char symbol) {
+        return isWin(mask(symbol));
+    }
+
+    /**
+     * Checks whether a player mask contains a complete row, column or diagonal.
+     *
+     * @param mask A 9-bit player mask.
+     * @return true if the mask covers one of the winning lines.
+     */
+    public static boolean isWin(int mask) {
+        for (int i = 0; i < LINES.length; i++) {
+            if ((mask & LINES[i]) == LINES[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the first line in which one player owns two squares and the third is free,
+     * which is either a winning move or a block depending on whose turn it is.
+     *
+     * @return The free square completing the line, or -1 if there is none.
+     */
+    public int findWinOrBlock() {
+        for (int i = 0; i < LINES.length; i++) {
+            int xs = x & LINES[i];
+            int os = o & LINES[i];
+            if ((os == 0 && Integer.bitCount(xs) == 2) || (xs == 0 && Integer.bitCount(os) == 2)) {
+                return Integer.numberOfTrailingZeros(LINES[i] & ~(xs | os));
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * The {@code Board} interface is the state of a game of K-in-a-row on a board of any width and
+ * height. Squares are numbered from 0, left to right and top to bottom. Winner detection is
+ * incremental: after a move only the lines through the square just played are checked.
+ * {@link Bitboard} is the fast version for the classic 3x3 game and {@link MnkBoard} handles
+ * every other size. The read-only half is {@link BoardView}; this interface adds the moves.
+ */
+public interface Board extends BoardView {
+
+    /**
+     * Sets the symbol on a square, replacing whatever was there before.
+     * 
+     * @param cell The square index.
+     * @param symbol 'x', 'o', or '-' to free the square.
+     */
+    void set(int cell, char symbol);
+
+    /**
+     * Gives every square on the board to one player, as happens when a game is won.
+     * 
+     * @param symbol The winning player's symbol ('x' or 'o').
+     */
+    void fill(char symbol);
+
+    /**
+     * Clears every square on the board.
+     */
+    void clear();
+
+    /**
+     * Overwrites this board with the state of another board of the same kind and size, without
+     * allocating anything. Searches use it to reset a scratch board many times a second.
+     * 
+     * @param other The board to copy from.
+     */
+    void copyFrom(Board other);
+}
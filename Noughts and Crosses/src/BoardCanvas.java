@@ -0,0 +1,222 @@
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.JComponent;
+
+/**
+ * The {@code BoardCanvas} class draws a board of any size as a single component. The grid and
+ * the symbols are painted straight from a {@link BoardView}, each square as one copy of an image
+ * from a {@link GlyphCache}, clicks are turned into squares by
+ * their coordinates, and after a move only that square's rectangle is repainted. Swing paints it
+ * into its back buffer first, so it never flickers.
+ * <p>
+ * It replaces a grid of buttons, one per square, which cost a full button UI each and could not
+ * show the larger m,n,k boards at all.
+ */
+public class BoardCanvas extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Told which square was clicked.
+     */
+    interface CellListener {
+
+        /**
+         * Called on the Event Dispatch Thread when a square is clicked.
+         *
+         * @param cell The square index.
+         */
+        void cellClicked(int cell);
+    }
+
+    /**
+     * Preferred size of a square, in pixels.
+     */
+    static final int PREFERRED_CELL = 150;
+
+    /**
+     * The board being drawn.
+     */
+    private BoardView board;
+
+    /**
+     * Where clicks are sent, or {@code null} if nobody is listening.
+     */
+    private CellListener listener;
+
+    /**
+     * The colours of the squares, the grid and the symbols; white squares until a theme is set.
+     */
+    private Theme theme = new Theme(255, 255, 255);
+
+    /**
+     * Images of the squares at the current size and colours.
+     */
+    private final GlyphCache glyphs = new GlyphCache();
+
+    /**
+     * Scratch rectangle for the bounds of a square, reused so repainting allocates nothing.
+     */
+    private final Rectangle cellBounds = new Rectangle();
+
+    /**
+     * Creates a canvas showing a board.
+     *
+     * @param board The board to draw.
+     */
+    public BoardCanvas(BoardView board) {
+        this.board = board;
+        setOpaque(true);
+        setDoubleBuffered(true);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int cell = cellAt(e.getX(), e.getY());
+                if (cell != -1 && listener != null) {
+                    listener.cellClicked(cell);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets where clicks are sent.
+     *
+     * @param listener The listener, or {@code null} to ignore clicks.
+     */
+    public void setCellListener(CellListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Shows another board, for example one of a different size, and repaints everything.
+     *
+     * @param newBoard The board to draw.
+     */
+    public void setBoard(BoardView newBoard) {
+        board = newBoard;
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Recolours the board and repaints everything.
+     *
+     * @param theme The colours to use.
+     */
+    public void setTheme(Theme theme) {
+        this.theme = theme;
+        repaint();
+    }
+
+    /**
+     * Repaints only the rectangle of one square, after its symbol changed.
+     *
+     * @param cell The square index.
+     */
+    public void repaintCell(int cell) {
+        bounds(cell, cellBounds);
+        repaint(cellBounds);
+    }
+
+    /**
+     * Returns the size of a square, which is the same for every square so they stay square.
+     *
+     * @return The length of a square's side in pixels, including the line around it.
+     */
+    int cellSize() {
+        return Math.max(1, Math.min(getWidth() / board.width(), getHeight() / board.height()));
+    }
+
+    /**
+     * Returns the pixel offset of the grid from the left, keeping it centred.
+     *
+     * @return The left edge of the grid.
+     */
+    private int left() {
+        return (getWidth() - cellSize() * board.width()) / 2;
+    }
+
+    /**
+     * Returns the pixel offset of the grid from the top, keeping it centred.
+     *
+     * @return The top edge of the grid.
+     */
+    private int top() {
+        return (getHeight() - cellSize() * board.height()) / 2;
+    }
+
+    /**
+     * Finds the square under a point.
+     *
+     * @param x The x coordinate within the canvas.
+     * @param y The y coordinate within the canvas.
+     * @return The square index, or -1 if the point is outside the grid.
+     */
+    public int cellAt(int x, int y) {
+        int size = cellSize();
+        int column = Math.floorDiv(x - left(), size);
+        int row = Math.floorDiv(y - top(), size);
+        if (column < 0 || column >= board.width() || row < 0 || row >= board.height()) {
+            return -1;
+        }
+        return row * board.width() + column;
+    }
+
+    /**
+     * Works out the rectangle a square is drawn in.
+     *
+     * @param cell The square index.
+     * @param into The rectangle to fill in.
+     */
+    void bounds(int cell, Rectangle into) {
+        int size = cellSize();
+        into.setBounds(left() + (cell % board.width()) * size, top() + (cell / board.width()) * size, size, size);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        int size = Math.max(24, PREFERRED_CELL * 3 / Math.max(board.width(), board.height()));
+        return new Dimension(size * board.width(), size * board.height());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int size = cellSize();
+        int width = board.width();
+        int height = board.height();
+        int left = left();
+        int top = top();
+
+        // The squares are opaque, so only the margin around the grid needs filling
+        if (clip.x < left || clip.y < top || clip.x + clip.width > left + size * width
+                || clip.y + clip.height > top + size * height) {
+            g.setColor(theme.getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        }
+
+        // Only the squares that overlap the clip are drawn
+        int firstColumn = Math.max(0, Math.floorDiv(clip.x - left, size));
+        int lastColumn = Math.min(width - 1, Math.floorDiv(clip.x + clip.width - 1 - left, size));
+        int firstRow = Math.max(0, Math.floorDiv(clip.y - top, size));
+        int lastRow = Math.min(height - 1, Math.floorDiv(clip.y + clip.height - 1 - top, size));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                char symbol = board.get(row * width + column);
+                g.drawImage(glyphs.square(symbol, size, theme), left + column * size,
+                        top + row * size, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * The {@code BoardView} interface is a read-only look at a board of K-in-a-row. It is what a
+ * {@link Strategy} is given, so a strategy can look at the position but never change it; the
+ * only way to play on it is to take a {@link #copy()} of its own. Every method works on plain
+ * square indices and symbols, so reading a board allocates nothing.
+ */
+public interface BoardView {
+
+    /**
+     * Returns the number of columns on the board.
+     * 
+     * @return The board's width.
+     */
+    int width();
+
+    /**
+     * Returns the number of rows on the board.
+     * 
+     * @return The board's height.
+     */
+    int height();
+
+    /**
+     * Returns how many symbols in a row are needed to win.
+     * 
+     * @return The winning run length.
+     */
+    int k();
+
+    /**
+     * Returns the number of squares on the board.
+     * 
+     * @return The board's width times its height.
+     */
+    int cells();
+
+    /**
+     * Returns the symbol on a square.
+     * 
+     * @param cell The square index.
+     * @return 'x', 'o', or '-' for a free square.
+     */
+    char get(int cell);
+
+    /**
+     * Checks whether a square is still free.
+     * 
+     * @param cell The square index.
+     * @return true if neither player owns the square.
+     */
+    boolean isFree(int cell);
+
+    /**
+     * Checks whether every square on the board has been played.
+     * 
+     * @return true if there are no free squares left.
+     */
+    boolean isFull();
+
+    /**
+     * Returns how many squares are still free.
+     * 
+     * @return The number of free squares.
+     */
+    int freeCount();
+
+    /**
+     * Returns a free square by its position among the free squares, counting from the lowest
+     * square index. Picking {@code n} at random below {@link #freeCount()} gives a uniformly
+     * random free square in a single draw.
+     * 
+     * @param n Which free square to return, from 0 to {@link #freeCount()} - 1.
+     * @return The square index, or -1 if there are not that many free squares.
+     */
+    int nthFree(int n);
+
+    /**
+     * Checks whether the symbol on a square is part of a winning run. Only the row, column and
+     * two diagonals through that square are looked at.
+     * 
+     * @param cell The square index, normally the square just played.
+     * @return true if the square's owner has K in a row through it.
+     */
+    boolean wins(int cell);
+
+    /**
+     * Creates an independent copy of the board, for example so an AI can work on a snapshot.
+     * 
+     * @return The copy.
+     */
+    Board copy();
+}
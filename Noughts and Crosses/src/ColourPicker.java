@@ -1,6 +1,8 @@
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.BoxLayout;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -13,6 +15,8 @@ import javax.swing.event.ChangeListener;
  * The {@code ColourPicker} class provides a graphical interface for selecting a color
  * using RGB sliders. The user can adjust the red, green, and blue color components,
  * and the panel's background color will dynamically update based on the selected values.
+ * The chosen colour is kept as a shared {@link Theme}, which is only rebuilt when a value
+ * actually changes. Anything that follows it registers a listener and is told when it changes.
  */
 public class ColourPicker implements ChangeListener {
 
@@ -71,6 +75,16 @@ public class ColourPicker implements ChangeListener {
      */
     static int blueness;
 
+    /**
+     * The theme built from the current RGB values.
+     */
+    static Theme theme = new Theme(0, 0, 0);
+
+    /**
+     * Listeners told whenever the theme changes.
+     */
+    static List<ChangeListener> colourListeners = new ArrayList<ChangeListener>();
+
     /**
      * Constructs the color picker window and initializes the RGB sliders and labels.
      * 
@@ -148,24 +162,44 @@ public class ColourPicker implements ChangeListener {
      * This method is called whenever a slider's value changes.
      */
     public static void changeColourPickerColour() {
+        Theme current = theme;
+
         // Update label colors based on RGB values
-        blueL.setForeground(new Color(revertReturnRed(), revertReturnGreen(), revertReturnBlue()));
-        redL.setForeground(new Color(revertReturnRed(), revertReturnGreen(), revertReturnBlue()));
-        greenL.setForeground(new Color(revertReturnRed(), revertReturnGreen(), revertReturnBlue()));
+        blueL.setForeground(current.getForeground());
+        redL.setForeground(current.getForeground());
+        greenL.setForeground(current.getForeground());
 
         // Update the background colors
-        sliderPanel.setBackground(new Color(returnRed(), returnGreen(), returnBlue()));
-        blue.setBackground(new Color(returnRed(), returnGreen(), returnBlue()));
-        green.setBackground(new Color(returnRed(), returnGreen(), returnBlue()));
-        red.setBackground(new Color(returnRed(), returnGreen(), returnBlue()));
+        sliderPanel.setBackground(current.getBackground());
+        blue.setBackground(current.getBackground());
+        green.setBackground(current.getBackground());
+        red.setBackground(current.getBackground());
 
-        // Revalidate and repaint to reflect changes
-        frame.revalidate();
+        // Repaint to reflect changes
         frame.repaint();
     }
 
     /**
-     * Called whenever a slider's value changes. Updates the RGB values based on the slider's position.
+     * Registers a listener to be told whenever the chosen colour changes.
+     * 
+     * @param listener The listener to add.
+     */
+    public static void addColourListener(ChangeListener listener) {
+        colourListeners.add(listener);
+    }
+
+    /**
+     * Returns the theme built from the current RGB values.
+     * 
+     * @return The current theme.
+     */
+    public static Theme getTheme() {
+        return theme;
+    }
+
+    /**
+     * Called whenever a slider's value changes. Updates the RGB values based on the slider's position
+     * and, if the colour really changed, rebuilds the theme and tells the colour listeners about it.
      * 
      * @param evt The event triggered by a slider change.
      */
@@ -179,6 +213,16 @@ public class ColourPicker implements ChangeListener {
         } else if (evt.getSource() == blue) {
             blueness = blue.getValue();
         }
+
+        Theme updated = theme.with(redness, greenness, blueness);
+        if (updated == theme) {
+            return;
+        }
+        theme = updated;
+
+        for (int i = 0; i < colourListeners.size(); i++) {
+            colourListeners.get(i).stateChanged(evt);
+        }
     }
 
     /**
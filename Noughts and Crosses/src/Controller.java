@@ -0,0 +1,30 @@
+/**
+ * The {@code Controller} interface decides the moves for one side of a {@link GamePanel}. The
+ * panel holds one controller per symbol, so human against human, human against the AI and the
+ * AI against itself are all the same board with different controllers attached, and switching
+ * between them only swaps a controller.
+ */
+public interface Controller {
+
+    /**
+     * Called on the Event Dispatch Thread when it becomes this side's turn and there is still a
+     * free square to play.
+     * 
+     * @param game The game to play the move in.
+     * @param symbol The symbol this side is playing ('x' or 'o').
+     */
+    void turnStarted(Game game, char symbol);
+
+    /**
+     * Returns whether clicks on the board play for this side.
+     * 
+     * @return true for a person at the window.
+     */
+    boolean takesClicks();
+
+    /**
+     * Stops working out a move, for example when the board is reset or the controller is
+     * swapped out. A move that was being worked out is never played.
+     */
+    void cancel();
+}
@@ -1,5 +1,4 @@
 import java.awt.BorderLayout;
-import java.awt.Color;
 import java.awt.Font;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -57,22 +56,22 @@ public class DeathScreen {
             // Create and configure the label for the death message
             deathText = new JLabel();
             deathText.setText("HA, HA you died " + deadMan);
-            deathText.setFont(new Font("Hobbiton Brushhand", Font.BOLD, 100));
+            deathText.setFont(GlyphCache.symbolFont(Font.BOLD, 100));
             deathText.setHorizontalAlignment(JLabel.CENTER);
 
             // Add components and set colors
             deathScreen.add(deathText);
             deathframe.add(deathScreen);
-            deathText.setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
-            deathScreen.setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
+            deathText.setForeground(ColourPicker.getTheme().getForeground());
+            deathScreen.setBackground(ColourPicker.getTheme().getBackground());
 
             // Mark the death screen as created
             done = true;
         } else {
             // Update the death screen if it already exists
             deathText.setText("HA, HA you died " + deadMan);
-            deathText.setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
-            deathScreen.setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
+            deathText.setForeground(ColourPicker.getTheme().getForeground());
+            deathScreen.setBackground(ColourPicker.getTheme().getBackground());
             deathframe.setVisible(true);
         }
     }
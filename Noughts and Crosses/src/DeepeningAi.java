@@ -0,0 +1,463 @@
+import java.util.Arrays;
+
+/**
+ * The {@code DeepeningAi} class is an anytime search for boards of any size. It runs an
+ * alpha-beta search one move deep, then two, then three and so on, and when the time budget runs
+ * out it answers with the best move of the deepest search it finished. On the classic 3x3 board
+ * it searches to the end of the game long before the budget is used up.
+ * <p>
+ * While the opponent is thinking it can {@link #ponder} their likely replies. It works out its
+ * answer to each one in advance and caches it, so when the opponent plays one of them the
+ * answer comes back at once.
+ */
+public class DeepeningAi implements Strategy {
+
+    /**
+     * Score of a won position, before adding a bonus for winning sooner.
+     */
+    static final int WIN = 1_000_000;
+
+    /**
+     * Boards with at most this many squares consider every free square; bigger boards only
+     * consider squares next to ones already played.
+     */
+    static final int SMALL_BOARD = 16;
+
+    /**
+     * The four directions a line can run in, as row and column steps: across, down and the two diagonals.
+     */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /**
+     * How long each move may take, in milliseconds.
+     */
+    private long budgetMillis;
+
+    /**
+     * {@link System#nanoTime()} at which the current search must stop.
+     */
+    private long deadline;
+
+    /**
+     * Set once the current search has run out of time.
+     */
+    private boolean outOfTime;
+
+    /**
+     * Set to stop pondering early. Checked alongside the deadline.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The position the cached answers were pondered from, or {@code null} if there are none.
+     */
+    private Board ponderBoard;
+
+    /**
+     * {@code ponderAnswers[c]} is the pondered answer to the opponent playing square {@code c}
+     * from {@link #ponderBoard}, or -1 if that reply was not pondered.
+     */
+    private int[] ponderAnswers;
+
+    /**
+     * The player the cached answers are for.
+     */
+    private char ponderSymbol;
+
+    /**
+     * Number of positions visited by the current search.
+     */
+    private long nodes;
+
+    /**
+     * Candidate moves, one buffer per search depth so the search allocates nothing.
+     */
+    private int[][] moveBuffers = new int[0][];
+
+    /**
+     * Candidate moves at the root, reused like {@link #moveBuffers}.
+     */
+    private int[] rootMoves = new int[0];
+
+    /**
+     * The board {@link #bestMove} searches on, overwritten with each new position and only
+     * replaced when the kind or size of board changes.
+     */
+    private Board searchBoard;
+
+    /**
+     * Creates an AI with a 50 ms budget per move.
+     */
+    public DeepeningAi() {
+        this(50);
+    }
+
+    /**
+     * Creates an AI.
+     *
+     * @param budgetMillis How long each move may take, in milliseconds.
+     */
+    public DeepeningAi(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Sets how long each move may take.
+     *
+     * @param millis The budget per move in milliseconds.
+     */
+    public void setBudget(long millis) {
+        budgetMillis = millis;
+    }
+
+    /**
+     * Returns the answer pondered for this position if there is one. Otherwise searches deeper
+     * and deeper until the time budget runs out or the game is searched to the end, then returns
+     * the best move found by the deepest finished search.
+     *
+     * @param position The current state of the game board, which is not changed.
+     * @param symbol The symbol the AI is playing ('x' or 'o').
+     * @return The square to play, or -1 if the board is full.
+     */
+    public int bestMove(BoardView position, char symbol) {
+        stopped = false;
+        int pondered = ponderedAnswer(position, symbol);
+        ponderBoard = null;
+        if (pondered != -1) {
+            return pondered;
+        }
+        return search(snapshot(position), symbol);
+    }
+
+    /**
+     * Copies a position onto {@link #searchBoard}, making a new one only if there is none yet or
+     * the position is a different kind or size of board.
+     *
+     * @param position The position to copy.
+     * @return The search board, now holding the position.
+     */
+    private Board snapshot(BoardView position) {
+        if (searchBoard != null && position instanceof Board && position.getClass() == searchBoard.getClass()
+                && position.width() == searchBoard.width() && position.height() == searchBoard.height()
+                && position.k() == searchBoard.k()) {
+            searchBoard.copyFrom((Board) position);
+        } else {
+            searchBoard = position.copy();
+        }
+        return searchBoard;
+    }
+
+    @Override
+    public int move(BoardView board, char symbol) {
+        return bestMove(board, symbol);
+    }
+
+    /**
+     * Works out answers to the opponent's likely replies while they think, most promising reply
+     * first, each with the full time budget. Runs until every reply has an answer or
+     * {@link #stopPondering} is called; the answers are kept for {@link #bestMove}.
+     *
+     * @param position The position the opponent is to move from, which is not changed.
+     * @param opponent The opponent's symbol ('x' or 'o').
+     */
+    public void ponder(BoardView position, char opponent) {
+        Board board = position.copy();
+        char symbol = (opponent == 'x') ? 'o' : 'x';
+        ponderBoard = position.copy();
+        ponderSymbol = symbol;
+        ponderAnswers = new int[board.cells()];
+        Arrays.fill(ponderAnswers, -1);
+
+        // Order the replies by how good they look for the opponent
+        int[] replies = new int[board.cells()];
+        int count = candidates(board, replies);
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+            board.set(replies[i], opponent);
+            scores[i] = evaluate(board, opponent);
+            board.set(replies[i], '-');
+            for (int j = i; j > 0 && scores[j] > scores[j - 1]; j--) {
+                int score = scores[j];
+                scores[j] = scores[j - 1];
+                scores[j - 1] = score;
+                int reply = replies[j];
+                replies[j] = replies[j - 1];
+                replies[j - 1] = reply;
+            }
+        }
+
+        for (int i = 0; i < count && !stopped; i++) {
+            int reply = replies[i];
+            board.set(reply, opponent);
+            if (!board.wins(reply) && !board.isFull()) {
+                int answer = search(board, symbol);
+                if (!stopped) {
+                    ponderAnswers[reply] = answer;
+                }
+            }
+            board.set(reply, '-');
+        }
+    }
+
+    /**
+     * Stops {@link #ponder} as soon as possible. Safe to call from any thread.
+     */
+    public void stopPondering() {
+        stopped = true;
+    }
+
+    /**
+     * Looks up the pondered answer for a position, which must be the pondered position plus one
+     * move by the opponent.
+     *
+     * @param position The position the AI is to move from.
+     * @param symbol The symbol the AI is playing.
+     * @return The cached answer, or -1 if there is none.
+     */
+    private int ponderedAnswer(BoardView position, char symbol) {
+        if (ponderBoard == null || symbol != ponderSymbol || ponderBoard.cells() != position.cells()
+                || ponderBoard.width() != position.width() || ponderBoard.k() != position.k()) {
+            return -1;
+        }
+
+        char opponent = (symbol == 'x') ? 'o' : 'x';
+        int reply = -1;
+        for (int cell = 0; cell < position.cells(); cell++) {
+            char before = ponderBoard.get(cell);
+            char after = position.get(cell);
+            if (before == after) {
+                continue;
+            }
+            if (reply != -1 || before != '-' || after != opponent) {
+                return -1;
+            }
+            reply = cell;
+        }
+        return (reply == -1) ? -1 : ponderAnswers[reply];
+    }
+
+    /**
+     * Runs the iterative deepening search itself.
+     *
+     * @param board A scratch copy of the position, which is restored before returning.
+     * @param symbol The player to move.
+     * @return The best move of the deepest finished search, or -1 if the board is full.
+     */
+    private int search(Board board, char symbol) {
+        int free = board.freeCount();
+        if (free == 0) {
+            return -1;
+        }
+
+        deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        nodes = 0;
+        if (moveBuffers.length < free + 1 || moveBuffers[0].length < board.cells()) {
+            moveBuffers = new int[free + 1][board.cells()];
+        }
+
+        if (rootMoves.length < board.cells()) {
+            rootMoves = new int[board.cells()];
+        }
+        int count = candidates(board, rootMoves);
+        int best = rootMoves[0];
+        char other = (symbol == 'x') ? 'o' : 'x';
+
+        for (int depth = 1; depth <= free; depth++) {
+            outOfTime = false;
+            int alpha = -Integer.MAX_VALUE;
+            int iterationBest = -1;
+            int iterationIndex = 0;
+
+            for (int i = 0; i < count; i++) {
+                int move = rootMoves[i];
+                board.set(move, symbol);
+                int score;
+                if (board.wins(move)) {
+                    score = WIN + board.freeCount();
+                } else {
+                    score = -negamax(board, other, depth - 1, 1, -Integer.MAX_VALUE, -alpha);
+                }
+                board.set(move, '-');
+
+                if (outOfTime) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                    iterationIndex = i;
+                }
+            }
+
+            // A search cut short by the deadline is thrown away
+            if (outOfTime || iterationBest == -1) {
+                break;
+            }
+            best = iterationBest;
+
+            // Search the best move first next time, which makes alpha-beta cut more
+            rootMoves[iterationIndex] = rootMoves[0];
+            rootMoves[0] = best;
+
+            if (alpha >= WIN || alpha <= -WIN) {
+                break; // The result is already certain
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of positions the last search visited.
+     *
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Scores a position for the player to move with an alpha-beta search of limited depth.
+     *
+     * @param board The position, which is restored before returning.
+     * @param turn The player to move.
+     * @param depth How many more moves to search.
+     * @param ply How many moves from the root this position is.
+     * @param alpha The score the player to move is already guaranteed.
+     * @param beta The score the other player is already guaranteed, negated.
+     * @return The score of the position for the player to move.
+     */
+    private int negamax(Board board, char turn, int depth, int ply, int alpha, int beta) {
+        if ((++nodes & 63) == 0 && (stopped || System.nanoTime() > deadline)) {
+            outOfTime = true;
+        }
+        if (outOfTime || board.isFull()) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluate(board, turn);
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = candidates(board, moves);
+        char other = (turn == 'x') ? 'o' : 'x';
+        int best = -Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.set(move, turn);
+            int score;
+            if (board.wins(move)) {
+                score = WIN + board.freeCount();
+            } else {
+                score = -negamax(board, other, depth - 1, ply + 1, -beta, -alpha);
+            }
+            board.set(move, '-');
+
+            if (score > best) {
+                best = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta || outOfTime) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lists the moves worth searching. Small boards use every free square; on bigger boards only
+     * free squares touching a played square are used, or the centre if nothing has been played.
+     *
+     * @param board The position.
+     * @param moves Buffer the moves are written into.
+     * @return How many moves were written.
+     */
+    private static int candidates(Board board, int[] moves) {
+        int cells = board.cells();
+        int count = 0;
+        if (cells <= SMALL_BOARD) {
+            for (int cell = 0; cell < cells; cell++) {
+                if (board.isFree(cell)) {
+                    moves[count++] = cell;
+                }
+            }
+            return count;
+        }
+
+        int width = board.width();
+        int height = board.height();
+        for (int cell = 0; cell < cells; cell++) {
+            if (!board.isFree(cell)) {
+                continue;
+            }
+            int row = cell / width;
+            int col = cell % width;
+            boolean near = false;
+            for (int r = Math.max(0, row - 1); r <= Math.min(height - 1, row + 1) && !near; r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(width - 1, col + 1); c++) {
+                    if (!board.isFree(r * width + c)) {
+                        near = true;
+                        break;
+                    }
+                }
+            }
+            if (near) {
+                moves[count++] = cell;
+            }
+        }
+
+        if (count == 0) {
+            moves[count++] = (height / 2) * width + width / 2;
+        }
+        return count;
+    }
+
+    /**
+     * Estimates a position without searching further. Every run of K squares in a row that only
+     * one player has played in is worth more the more of it they own. The estimate always stays
+     * below {@link #WIN}, so it is never mistaken for a proven result.
+     *
+     * @param board The position.
+     * @param turn The player to move.
+     * @return The estimate for the player to move, strictly between -WIN and WIN.
+     */
+    static int evaluate(Board board, char turn) {
+        int width = board.width();
+        int height = board.height();
+        int k = board.k();
+        long score = 0;
+
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int dr = DIRECTIONS[d][0];
+            int dc = DIRECTIONS[d][1];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int endRow = row + dr * (k - 1);
+                    int endCol = col + dc * (k - 1);
+                    if (endRow < 0 || endRow >= height || endCol < 0 || endCol >= width) {
+                        continue;
+                    }
+
+                    int mine = 0;
+                    int theirs = 0;
+                    for (int i = 0; i < k; i++) {
+                        char symbol = board.get((row + dr * i) * width + col + dc * i);
+                        if (symbol == turn) {
+                            mine++;
+                        } else if (symbol != '-') {
+                            theirs++;
+                        }
+                    }
+
+                    if (theirs == 0 && mine > 0) {
+                        score += 1 << (2 * Math.min(mine, 10));
+                    } else if (mine == 0 && theirs > 0) {
+                        score -= 1 << (2 * Math.min(theirs, 10));
+                    }
+                }
+            }
+        }
+        return (int) Math.max(1 - WIN, Math.min(WIN - 1, score));
+    }
+}
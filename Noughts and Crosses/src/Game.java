@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code Game} class is the headless core of a Noughts and Crosses game. It owns the
+ * board, whose turn it is and the rules for placing symbols and finding a winner, and
+ * keeps its {@link LifeSystem} up to date. It has no dependency on AWT or Swing, so it can
+ * be driven from a game panel, a test harness or a batch job alike; anything that needs to
+ * react to the game registers a {@link GameListener}. The classic game is played on a 3x3
+ * {@link Bitboard}, but any width, height and run length can be used.
+ */
+public class Game {
+
+    /**
+     * The state of the board.
+     */
+    private Board board;
+
+    /**
+     * The current player's symbol ('x' or 'o'). It starts as 'o'.
+     */
+    private char myTurn = 'o';
+
+    /**
+     * The life totals this game keeps up to date.
+     */
+    private final LifeSystem lives;
+
+    /**
+     * Listeners that are told about every change to the game.
+     */
+    private List<GameListener> listeners = new ArrayList<GameListener>();
+
+    /**
+     * Creates a classic game of noughts and crosses on a 3x3 board, keeping score in life
+     * totals of its own.
+     */
+    public Game() {
+        this(3, 3, 3, new LifeSystem());
+    }
+
+    /**
+     * Creates a game where K symbols in a row win on a board of any size, keeping score in life
+     * totals of its own.
+     * 
+     * @param width The number of columns.
+     * @param height The number of rows.
+     * @param k How many symbols in a row are needed to win.
+     */
+    public Game(int width, int height, int k) {
+        this(width, height, k, new LifeSystem());
+    }
+
+    /**
+     * Creates a game where K symbols in a row win on a board of any size.
+     * 
+     * @param width The number of columns.
+     * @param height The number of rows.
+     * @param k How many symbols in a row are needed to win.
+     * @param lives The life totals the game keeps score in, which several games in a row of the
+     *            same match can share.
+     */
+    public Game(int width, int height, int k, LifeSystem lives) {
+        this.lives = lives;
+        if (width == 3 && height == 3 && k == 3) {
+            board = new Bitboard();
+        } else {
+            board = new MnkBoard(width, height, k);
+        }
+    }
+
+    /**
+     * Registers a listener to be told about changes to the game.
+     * 
+     * @param listener The listener to add.
+     */
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the board this game is played on. Callers should treat it as read-only and
+     * make their moves through {@link #play(int)}.
+     * 
+     * @return The game's board.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the life totals this game keeps score in.
+     * 
+     * @return The game's life system.
+     */
+    public LifeSystem getLives() {
+        return lives;
+    }
+
+    /**
+     * Returns the current player's symbol ('x' or 'o').
+     * 
+     * @return The current player's symbol.
+     */
+    public char getTurn() {
+        return myTurn;
+    }
+
+    /**
+     * Plays the current player's symbol on a square, checks for a winner and passes the
+     * turn to the other player. Squares that are already taken are ignored.
+     * 
+     * @param cell The square index.
+     * @return true if the move was played, false if the square was not free.
+     */
+    public boolean play(int cell) {
+        if (cell < 0 || cell >= board.cells() || !board.isFree(cell)) {
+            return false;
+        }
+        place(cell, myTurn);
+        checkWinner(cell);
+        switchTurn();
+        return true;
+    }
+
+    /**
+     * Lets the AI take the current player's turn. The turn passes to the other player even
+     * if the AI could not find a free square.
+     * 
+     * @param strategy The strategy choosing the move, such as an {@link Ai}.
+     */
+    public void aiTurn(Strategy strategy) {
+        playAiMove(strategy.move(board, myTurn));
+    }
+
+    /**
+     * Plays a move the AI chose earlier, for example on a snapshot of the board in another
+     * thread. The turn passes to the other player even if the AI could not find a free square.
+     * 
+     * @param move The square the AI chose, or -1 if it found none.
+     */
+    public void playAiMove(int move) {
+        if (move >= 0 && move < board.cells() && board.isFree(move)) {
+            place(move, myTurn);
+            checkWinner(move);
+        }
+        switchTurn();
+    }
+
+    /**
+     * Passes the turn to the other player without playing a move.
+     */
+    public void pass() {
+        switchTurn();
+    }
+
+    /**
+     * Clears every square on the board. The turn and life totals are left alone.
+     */
+    public void reset() {
+        board.clear();
+        for (int i = 0; i < board.cells(); i++) {
+            for (int l = 0; l < listeners.size(); l++) {
+                listeners.get(l).squareChanged(i, '-');
+            }
+        }
+    }
+
+    /**
+     * Checks whether the move just played gives the current player a full row, column or
+     * diagonal. Only the lines through that square are looked at. If it does, every square is
+     * given the winning symbol and the winner loses a life, as the rules of this game have it.
+     * 
+     * @param cell The square just played.
+     */
+    private void checkWinner(int cell) {
+        if (board.wins(cell)) {
+            board.fill(myTurn);
+            for (int i = 0; i < board.cells(); i++) {
+                for (int l = 0; l < listeners.size(); l++) {
+                    listeners.get(l).squareChanged(i, myTurn);
+                }
+            }
+            // The game is over for the match once, when the last life goes
+            if (lives.loseLife(myTurn) == 0) {
+                fireGameOver((myTurn == 'x') ? "O" : "X");
+            }
+        }
+    }
+
+    /**
+     * Places a symbol on the board and tells the listeners about it.
+     * 
+     * @param cell The square index.
+     * @param symbol The symbol to place ('x' or 'o').
+     */
+    private void place(int cell, char symbol) {
+        board.set(cell, symbol);
+        for (int l = 0; l < listeners.size(); l++) {
+            listeners.get(l).squareChanged(cell, symbol);
+        }
+    }
+
+    /**
+     * Switches the turn between 'x' and 'o' and tells the listeners about it.
+     */
+    private void switchTurn() {
+        myTurn = (myTurn == 'x') ? 'o' : 'x';
+        for (int l = 0; l < listeners.size(); l++) {
+            listeners.get(l).turnChanged(myTurn);
+        }
+    }
+
+    /**
+     * Tells the listeners that one of the players has run out of lives.
+     * 
+     * @param deadMan The name of the player who has "died".
+     */
+    private void fireGameOver(String deadMan) {
+        for (int l = 0; l < listeners.size(); l++) {
+            listeners.get(l).gameOver(deadMan);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code GameEvents} class carries everything that happens in one {@link Game} to any number
+ * of subscribers, each on a thread of its own. The game is the only producer: every change is
+ * packed into a single {@code long} and written into a ring buffer, so publishing is a store and
+ * a counter update, and never waits for anyone. Each subscriber follows the ring at its own pace
+ * and is handed everything that arrived since its last look in one batch.
+ * <p>
+ * A subscriber that falls a whole ring behind is told how many events it missed with a
+ * {@link #LAPPED} event and carries on from the oldest event still in the ring. The game never
+ * slows down for it.
+ * <p>
+ * An event holds its type, a symbol, a number and both players' life totals at the time:
+ * <pre>
+ * bits 0-3    type, such as {@link #SQUARE}
+ * bits 4-11   symbol
+ * bits 12-31  square index, or how many events were missed for {@link #LAPPED}
+ * bits 32-47  X's lives
+ * bits 48-63  O's lives
+ * </pre>
+ */
+public class GameEvents implements GameListener, LifeListener {
+
+    /**
+     * A square changed: a move, a square filled by a win or a square cleared.
+     */
+    public static final int SQUARE = 0;
+
+    /**
+     * The turn passed; the symbol is the player to move.
+     */
+    public static final int TURN = 1;
+
+    /**
+     * A player lost a life; the symbol is the player.
+     */
+    public static final int LIFE = 2;
+
+    /**
+     * A player ran out of lives; the symbol is the name shown on the death screen, 'X' or 'O'.
+     */
+    public static final int GAME_OVER = 3;
+
+    /**
+     * The subscriber fell too far behind and missed some events.
+     */
+    public static final int LAPPED = 4;
+
+    /**
+     * Number of events the ring holds unless another size is asked for.
+     */
+    static final int DEFAULT_CAPACITY = 1 << 12;
+
+    /**
+     * How many times a subscriber checks for new events before it goes to sleep.
+     */
+    static final int SPINS = 100;
+
+    /**
+     * Longest {@link #close()} waits for each subscriber to finish, in milliseconds.
+     */
+    static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * Handles the events of one subscriber, always on that subscriber's thread.
+     */
+    interface Handler {
+
+        /**
+         * Called for each event, oldest first.
+         *
+         * @param event The packed event; read it with {@link GameEvents#type} and friends.
+         * @param endOfBatch Whether this is the last event available for now, a good moment to
+         *            act on everything gathered from the batch.
+         */
+        void onEvent(long event, boolean endOfBatch);
+    }
+
+    /**
+     * The ring of events. Event {@code n} is in slot {@code n & mask}.
+     */
+    private final long[] ring;
+
+    /**
+     * The ring's size minus one.
+     */
+    private final int mask;
+
+    /**
+     * Number of the last event published, or -1 before the first one.
+     */
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    /**
+     * The life totals copied into every event.
+     */
+    private final LifeSystem lives;
+
+    /**
+     * The subscribers.
+     */
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<Subscriber>();
+
+    /**
+     * Creates a bus for a game and starts listening to it.
+     *
+     * @param game The game whose events are published.
+     */
+    public GameEvents(Game game) {
+        this(game, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a bus with a ring of a given size for a game and starts listening to it.
+     *
+     * @param game The game whose events are published.
+     * @param capacity The number of events the ring holds, a power of two.
+     */
+    public GameEvents(Game game, int capacity) {
+        if (capacity < 4 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The ring size must be a power of two, not " + capacity);
+        }
+        ring = new long[capacity];
+        mask = capacity - 1;
+        lives = game.getLives();
+        game.addGameListener(this);
+        lives.addLifeListener(this);
+    }
+
+    /**
+     * Starts a subscriber on a thread of its own. It receives the events published from now on.
+     *
+     * @param name A name for the subscriber's thread.
+     * @param handler What to do with the events.
+     */
+    public void subscribe(String name, Handler handler) {
+        Subscriber subscriber = new Subscriber(handler, cursor.get() + 1);
+        Thread thread = new Thread(subscriber, "events-" + name);
+        thread.setDaemon(true);
+        subscriber.thread = thread;
+        subscribers.add(subscriber);
+        thread.start();
+    }
+
+    /**
+     * Stops every subscriber once it has handled everything published so far, and waits for
+     * them to finish, up to {@link #CLOSE_TIMEOUT_MILLIS} each. Afterwards nothing they write to,
+     * such as a journal, is touched by them again, so it can be closed.
+     */
+    public void close() {
+        for (int s = 0; s < subscribers.size(); s++) {
+            Subscriber subscriber = subscribers.get(s);
+            subscriber.running = false;
+            LockSupport.unpark(subscriber.thread);
+        }
+        try {
+            for (int s = 0; s < subscribers.size(); s++) {
+                subscribers.get(s).thread.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Returns the number of the last event published.
+     *
+     * @return The sequence number, or -1 before the first event.
+     */
+    public long published() {
+        return cursor.get();
+    }
+
+    @Override
+    public void squareChanged(int cell, char symbol) {
+        publish(SQUARE, cell, symbol);
+    }
+
+    @Override
+    public void turnChanged(char turn) {
+        publish(TURN, 0, turn);
+    }
+
+    @Override
+    public void gameOver(String deadMan) {
+        publish(GAME_OVER, 0, deadMan.charAt(0));
+    }
+
+    @Override
+    public void lifeLost(char symbol, int livesLeft) {
+        publish(LIFE, 0, symbol);
+    }
+
+    @Override
+    public void outOfLives(char symbol) {
+        // The game follows it with a game over, which names the player the way the window does
+    }
+
+    /**
+     * Writes an event into the ring and wakes any subscriber that has gone to sleep. Only the
+     * game's thread calls this.
+     *
+     * @param type The event type, such as {@link #SQUARE}.
+     * @param value The square index.
+     * @param symbol The symbol.
+     */
+    private void publish(int type, int value, char symbol) {
+        long sequence = cursor.get() + 1;
+        ring[(int) sequence & mask] = encode(type, value, symbol, lives.xLives(), lives.oLives());
+        cursor.set(sequence);
+        for (int s = 0; s < subscribers.size(); s++) {
+            Subscriber subscriber = subscribers.get(s);
+            if (subscriber.sleeping) {
+                LockSupport.unpark(subscriber.thread);
+            }
+        }
+    }
+
+    /**
+     * Packs an event into a long.
+     *
+     * @param type The event type.
+     * @param value The square index or count.
+     * @param symbol The symbol.
+     * @param xLives X's life total.
+     * @param oLives O's life total.
+     * @return The event.
+     */
+    static long encode(int type, int value, char symbol, int xLives, int oLives) {
+        return (type & 0xF) | (symbol & 0xFF) << 4 | (long) (value & 0xFFFFF) << 12
+                | (long) (xLives & 0xFFFF) << 32 | (long) (oLives & 0xFFFF) << 48;
+    }
+
+    /**
+     * Returns an event's type.
+     *
+     * @param event The event.
+     * @return A type such as {@link #SQUARE}.
+     */
+    public static int type(long event) {
+        return (int) event & 0xF;
+    }
+
+    /**
+     * Returns an event's symbol.
+     *
+     * @param event The event.
+     * @return The symbol.
+     */
+    public static char symbol(long event) {
+        return (char) ((event >>> 4) & 0xFF);
+    }
+
+    /**
+     * Returns an event's square index, or for {@link #LAPPED} how many events were missed.
+     *
+     * @param event The event.
+     * @return The number.
+     */
+    public static int value(long event) {
+        return (int) (event >>> 12) & 0xFFFFF;
+    }
+
+    /**
+     * Returns X's life total when the event happened.
+     *
+     * @param event The event.
+     * @return X's lives.
+     */
+    public static int xLives(long event) {
+        return (short) (event >>> 32);
+    }
+
+    /**
+     * Returns O's life total when the event happened.
+     *
+     * @param event The event.
+     * @return O's lives.
+     */
+    public static int oLives(long event) {
+        return (short) (event >>> 48);
+    }
+
+    /**
+     * One subscriber following the ring.
+     */
+    private class Subscriber implements Runnable {
+
+        /**
+         * What to do with the events.
+         */
+        final Handler handler;
+
+        /**
+         * The events copied out of the ring for the batch being handled.
+         */
+        final long[] batch = new long[ring.length];
+
+        /**
+         * Number of the next event to read.
+         */
+        long next;
+
+        /**
+         * The thread the subscriber runs on.
+         */
+        Thread thread;
+
+        /**
+         * Whether the subscriber should keep running.
+         */
+        volatile boolean running = true;
+
+        /**
+         * Whether the subscriber is asleep and needs waking when an event is published.
+         */
+        volatile boolean sleeping;
+
+        /**
+         * Creates a subscriber.
+         *
+         * @param handler What to do with the events.
+         * @param next Number of the first event to read.
+         */
+        Subscriber(Handler handler, long next) {
+            this.handler = handler;
+            this.next = next;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                long available = cursor.get();
+                if (available < next) {
+                    if (!running) {
+                        return; // Closed, and everything published has been handled
+                    }
+                    if (++idle < SPINS) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    // Say we are going to sleep before looking one last time, so a publish
+                    // that the look misses is sure to wake us. Until then an idle subscriber
+                    // costs nothing; a spurious wake-up just goes round the loop again
+                    sleeping = true;
+                    if (cursor.get() < next && running) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                    continue;
+                }
+                idle = 0;
+
+                // Copy the batch out, then check that the producer did not overwrite any of it
+                // while we copied
+                long first = Math.max(next, available - ring.length + 2);
+                int count = (int) (available - first + 1);
+                for (int i = 0; i < count; i++) {
+                    batch[i] = ring[(int) (first + i) & mask];
+                }
+                VarHandle.acquireFence();
+                long intact = cursor.get() - ring.length + 2;
+                int skip = (int) Math.min(count, Math.max(0, intact - first));
+                long missed = first - next + skip;
+                next = available + 1;
+
+                try {
+                    if (missed > 0) {
+                        handler.onEvent(encode(LAPPED, (int) Math.min(missed, 0xFFFFF), '-', 0, 0),
+                                skip == count);
+                    }
+                    for (int i = skip; i < count; i++) {
+                        handler.onEvent(batch[i], i == count - 1);
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("An event subscriber failed: " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only file of finished games, each stored as a {@link GameRecord}. The file is
+ * written through memory-mapped regions, so appending a game is a copy into memory, and the
+ * operating system writes the pages out in the background. At most once a second an append
+ * also forces the pages to disk and records in the header how much of the file is valid, so a
+ * crash loses at most the last second of games.
+ * <p>
+ * The file starts with a 16-byte header: the magic number, the format version and the offset
+ * just past the last valid record. Records follow back to back. Reading uses the same mapping
+ * and never copies the file, see {@link Reader}.
+ * <p>
+ * Once the journal is closed, appending fails with an {@link IOException} and forcing does
+ * nothing, so a late writer can never touch the pages past the trimmed end of the file.
+ */
+public class GameJournal implements Closeable {
+
+    /**
+     * Magic number at the start of every journal, "NCJL".
+     */
+    static final int MAGIC = 0x4E434A4C;
+
+    /**
+     * Format version written by this class.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Size of the header in bytes.
+     */
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * Size of each region of the file mapped at once.
+     */
+    static final long REGION_SIZE = 64L << 20;
+
+    /**
+     * Largest record the journal accepts, in bytes.
+     */
+    static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /**
+     * Longest time between forced writes to disk, in nanoseconds.
+     */
+    static final long FORCE_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * The open file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapped header.
+     */
+    private final MappedByteBuffer header;
+
+    /**
+     * The mapped region records are appended to.
+     */
+    private MappedByteBuffer region;
+
+    /**
+     * Offset just past the last record appended.
+     */
+    private long end;
+
+    /**
+     * {@link System#nanoTime()} of the last forced write.
+     */
+    private long lastForce = System.nanoTime();
+
+    /**
+     * Scratch buffer single records are encoded into.
+     */
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+
+    /**
+     * Whether {@link #close()} has been called.
+     */
+    private boolean closed;
+
+    /**
+     * Opens a journal for appending, creating it if it does not exist.
+     *
+     * @param path The journal file.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    public GameJournal(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean fresh = channel.size() == 0;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (fresh) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(8, HEADER_SIZE);
+        } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(path + " is not a game journal");
+        }
+        end = header.getLong(8);
+        map(end, 0);
+    }
+
+    /**
+     * Returns the offset just past the last record appended.
+     *
+     * @return The size of the valid part of the file.
+     */
+    public synchronized long size() {
+        return end;
+    }
+
+    /**
+     * Appends one game.
+     *
+     * @param record The game.
+     * @throws IOException If the file cannot grow, the record is too large or the journal is closed.
+     */
+    public synchronized void append(GameRecord record) throws IOException {
+        checkOpen();
+        int size = record.maxSize();
+        if (size > MAX_RECORD_SIZE) {
+            throw new IOException("A " + record.width + "x" + record.height + " game is too large to journal");
+        }
+        if (scratch.capacity() < size) {
+            scratch = ByteBuffer.allocate(size);
+        }
+        scratch.clear();
+        record.encode(scratch);
+        scratch.flip();
+        append(scratch);
+    }
+
+    /**
+     * Appends records that were already encoded, for example a batch of games encoded by one
+     * thread. The buffer must hold whole records only.
+     *
+     * @param records The encoded records, from the buffer's position to its limit.
+     * @throws IOException If the file cannot grow or the journal is closed.
+     */
+    public synchronized void append(ByteBuffer records) throws IOException {
+        checkOpen();
+        int length = records.remaining();
+        if (region.remaining() < length) {
+            map(end, length);
+        }
+        region.put(records);
+        end += length;
+
+        if (System.nanoTime() - lastForce > FORCE_INTERVAL_NANOS) {
+            force();
+        }
+    }
+
+    /**
+     * Writes every appended record to disk and then records the new end in the header. Does
+     * nothing once the journal is closed.
+     */
+    public synchronized void force() {
+        if (closed) {
+            return;
+        }
+        region.force();
+        header.putLong(8, end);
+        header.force();
+        lastForce = System.nanoTime();
+    }
+
+    /**
+     * Forces the journal to disk and closes it, trimming the file to the valid records. Closing
+     * it again does nothing.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        region = null; // Mapped past the trimmed end, so it must never be written again
+        try {
+            channel.truncate(end);
+        } catch (IOException e) {
+            // Some systems cannot shrink a mapped file; the header still says where it ends
+        }
+        channel.close();
+    }
+
+    /**
+     * Fails if the journal has been closed.
+     *
+     * @throws IOException If it has.
+     */
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The journal is closed");
+        }
+    }
+
+    /**
+     * Maps a new region for appending.
+     *
+     * @param start The offset the region starts at.
+     * @param atLeast The fewest bytes the region must hold.
+     * @throws IOException If the file cannot grow.
+     */
+    private void map(long start, int atLeast) throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.max(REGION_SIZE, atLeast));
+    }
+
+    /**
+     * Reads a journal front to back, one region of the file at a time, decoding into a single
+     * {@link GameRecord} so that scanning allocates nothing per game.
+     */
+    public static class Reader implements Closeable {
+
+        /**
+         * The open file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Offset just past the last valid record.
+         */
+        private final long end;
+
+        /**
+         * The mapped region being read.
+         */
+        private MappedByteBuffer region;
+
+        /**
+         * Offset in the file where {@link #region} starts.
+         */
+        private long regionStart;
+
+        /**
+         * Opens a journal for reading.
+         *
+         * @param path The journal file.
+         * @throws IOException If the file cannot be opened or is not a journal.
+         */
+        public Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+                // Keep reading until the header is complete
+            }
+            if (head.position() < HEADER_SIZE || head.getInt(0) != MAGIC || head.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException(path + " is not a game journal");
+            }
+            end = Math.min(head.getLong(8), channel.size());
+            map(HEADER_SIZE);
+        }
+
+        /**
+         * Returns how many bytes of records the journal holds.
+         *
+         * @return The size of the records.
+         */
+        public long size() {
+            return end - HEADER_SIZE;
+        }
+
+        /**
+         * Reads the next game.
+         *
+         * @param record The record to decode into.
+         * @return false if there are no more games.
+         * @throws IOException If the file cannot be read or the record is corrupt.
+         */
+        public boolean next(GameRecord record) throws IOException {
+            long position = regionStart + region.position();
+            if (position >= end) {
+                return false;
+            }
+
+            // A record that might cross the region's end is read from a fresh region starting
+            // where it does
+            long longest = Math.min(end - position, MAX_RECORD_SIZE);
+            if (region.remaining() < longest && regionStart + region.limit() < end) {
+                map(position);
+            }
+            try {
+                record.decode(region);
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                throw new IOException("Corrupt record at offset " + position + ": " + e.getMessage());
+            }
+            return true;
+        }
+
+        /**
+         * Maps the next region for reading.
+         *
+         * @param start The offset the region starts at.
+         * @throws IOException If the file cannot be mapped.
+         */
+        private void map(long start) throws IOException {
+            regionStart = start;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, end - start));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * The {@code GameListener} interface is implemented by anything that wants to follow a
+ * {@link Game}. The game core never touches Swing itself. Listeners are called on the game's
+ * thread, so anything slow, such as drawing or writing, follows a {@link GameEvents} instead.
+ */
+public interface GameListener {
+
+    /**
+     * Called when the symbol on a square changes.
+     * 
+     * @param cell The square index, counted across each row from the top left.
+     * @param symbol The new symbol ('x', 'o', or '-' when the square is cleared).
+     */
+    void squareChanged(int cell, char symbol);
+
+    /**
+     * Called after the turn passes to the other player.
+     * 
+     * @param turn The symbol of the player whose turn it now is.
+     */
+    void turnChanged(char turn);
+
+    /**
+     * Called after a win leaves one of the players with no lives left.
+     * 
+     * @param deadMan The name of the player who has "died".
+     */
+    void gameOver(String deadMan);
+}
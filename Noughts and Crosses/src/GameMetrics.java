@@ -0,0 +1,152 @@
+/**
+ * The {@code GameMetrics} class counts what happens in a game as a {@link GameEvents}
+ * subscriber: squares played, turns, lives lost and games over, and how the subscriber keeps up
+ * with the game. Only the subscriber's thread writes the counts, and any thread may read them.
+ */
+public class GameMetrics implements GameEvents.Handler {
+
+    /**
+     * Number of symbols placed, including the squares filled in by a win.
+     */
+    private volatile long squares;
+
+    /**
+     * Number of squares cleared.
+     */
+    private volatile long clears;
+
+    /**
+     * Number of times the turn passed.
+     */
+    private volatile long turns;
+
+    /**
+     * Number of lives lost.
+     */
+    private volatile long livesLost;
+
+    /**
+     * Number of times a player ran out of lives.
+     */
+    private volatile long gameOvers;
+
+    /**
+     * Number of batches handled.
+     */
+    private volatile long batches;
+
+    /**
+     * Number of events handled, not counting missed ones.
+     */
+    private volatile long events;
+
+    /**
+     * Number of events that were missed because the subscriber fell a whole ring behind.
+     */
+    private volatile long missed;
+
+    /**
+     * The most events handled in one batch.
+     */
+    private volatile long largestBatch;
+
+    /**
+     * Events handled so far in the current batch.
+     */
+    private long batch;
+
+    @Override
+    public void onEvent(long event, boolean endOfBatch) {
+        switch (GameEvents.type(event)) {
+            case GameEvents.SQUARE:
+                if (GameEvents.symbol(event) == '-') {
+                    clears++;
+                } else {
+                    squares++;
+                }
+                break;
+            case GameEvents.TURN:
+                turns++;
+                break;
+            case GameEvents.LIFE:
+                livesLost++;
+                break;
+            case GameEvents.GAME_OVER:
+                gameOvers++;
+                break;
+            case GameEvents.LAPPED:
+                missed += GameEvents.value(event);
+                break;
+            default:
+                break;
+        }
+        if (GameEvents.type(event) != GameEvents.LAPPED) {
+            events++;
+            batch++;
+        }
+        if (endOfBatch) {
+            batches++;
+            largestBatch = Math.max(largestBatch, batch);
+            batch = 0;
+        }
+    }
+
+    /**
+     * Returns the number of symbols placed, including the squares filled in by a win.
+     *
+     * @return The count.
+     */
+    public long squares() {
+        return squares;
+    }
+
+    /**
+     * Returns the number of times the turn passed.
+     *
+     * @return The count.
+     */
+    public long turns() {
+        return turns;
+    }
+
+    /**
+     * Returns the number of lives lost.
+     *
+     * @return The count.
+     */
+    public long livesLost() {
+        return livesLost;
+    }
+
+    /**
+     * Returns the number of times a player ran out of lives.
+     *
+     * @return The count.
+     */
+    public long gameOvers() {
+        return gameOvers;
+    }
+
+    /**
+     * Returns the number of events missed by falling behind.
+     *
+     * @return The count.
+     */
+    public long missed() {
+        return missed;
+    }
+
+    /**
+     * Describes the counts in one line.
+     *
+     * @return The counts.
+     */
+    public String summary() {
+        long handled = events;
+        long done = Math.max(1, batches);
+        return squares + " squares played, " + clears + " cleared, " + turns + " turns, " + livesLost
+                + " lives lost, " + gameOvers + " games over; " + handled + " events in " + batches
+                + " batches (" + String.format("%.1f", (double) handled / done) + " on average, "
+                + largestBatch + " at most), " + missed + " missed";
+    }
+}
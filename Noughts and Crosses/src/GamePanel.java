@@ -1,209 +1,280 @@
-import java.awt.Color;
-import java.awt.Font;
-import java.awt.GridLayout;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.Random;
-import javax.swing.JButton;
+import java.awt.BorderLayout;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /**
  * The {@code GamePanel} class represents the game board for a Tic-Tac-Toe game.
- * It manages the game state, including player and AI turns, and checks for a winner.
- * The board is displayed using a 3x3 grid of {@link Title} components, and the panel
- * updates dynamically based on the player's and AI's actions.
+ * It shows a {@link Game} on a {@link BoardCanvas} and hands each turn to the {@link Controller}
+ * of the side whose turn it is: a {@link HumanController} plays the squares that are clicked and
+ * an {@link AiController} works its move out in the background. The game itself decides the
+ * winner. The panel follows it through the game's {@link GameEvents}: it repaints the squares
+ * that changed and has the labels updated from its own subscriber thread, a batch at a time, so
+ * the game never waits for the screen. The labels belong to whoever shows the panel, which
+ * hands it a callback to update them.
  */
-public class GamePanel extends JPanel implements ActionListener {
+public class GamePanel extends JPanel implements BoardCanvas.CellListener, GameListener, GameEvents.Handler {
 
     private static final long serialVersionUID = 1L;
 
     /**
-     * Array of {@link Title} objects that represent the 9 positions on the Tic-Tac-Toe board.
+     * The headless game shown by this panel.
      */
-    private Title[] myTitles = new Title[9];
+    private final Game game;
 
     /**
-     * The current player's symbol ('X' or 'O'). It starts as 'O'.
+     * Everything that happens in the game, for the panel and any other subscriber.
      */
-    private char myTurn = 'o';
+    private final GameEvents events;
 
     /**
-     * Button that displays whose turn it is (X or O).
+     * The component the board is drawn on.
      */
-    public JButton myTurnL;
+    private final BoardCanvas canvas;
 
     /**
-     * Flag used to stop the game when a winner is found.
+     * Whether the current batch of events changed the turn or the lives, so the labels need
+     * updating. Only used on the subscriber thread.
      */
-    private boolean stop = false;
+    private boolean labelsChanged;
 
     /**
-     * Random number generator for AI delay to simulate thinking.
+     * The name of the player who died in the current batch of events, or '-' if nobody did.
+     * Only used on the subscriber thread.
      */
-    Random rand = new Random();
+    private char died = '-';
 
     /**
-     * Instance of the {@link Ai} class that handles the AI's moves.
+     * Updates the labels that show the turn and the lives. Run on the Event Dispatch Thread
+     * after every batch of events that changed them.
      */
-    Ai ai = new Ai();
+    private final Runnable labelUpdate;
 
     /**
-     * Creates the game panel, sets up the 3x3 grid layout, and initializes the board.
-     * 
-     * @param myTurnLabel The button that displays the current player's turn.
+     * The side playing 'x'.
      */
-    public GamePanel(JButton myTurnLabel) {
-    	
-        this.setLayout(new GridLayout(3, 3)); // Create a 3x3 grid layout
-        myTurnL = myTurnLabel;
+    private Controller xController;
 
-        // Initialize the 9 tiles
-        for (int i = 0; i < myTitles.length; i++) {
-            myTitles[i] = new Title();
-            this.add(myTitles[i]);
-            myTitles[i].addActionListener(this);
-            myTitles[i].setBackground(Color.WHITE);
-            myTitles[i].setFocusPainted(false);
-            myTitles[i].setSymbol('-'); // Initially, tiles are empty
-        }
+    /**
+     * The side playing 'o'.
+     */
+    private Controller oController;
+
+    /**
+     * Creates the game panel with the board filling it. The panel shows one game for as long as
+     * it lives; playing on another board takes a new panel.
+     *
+     * @param game The game to show, on a board of any size.
+     * @param labelUpdate Updates the labels showing the turn and lives, on the Event Dispatch
+     *            Thread.
+     * @param x The side playing 'x'.
+     * @param o The side playing 'o'.
+     */
+    public GamePanel(Game game, Runnable labelUpdate, Controller x, Controller o) {
+
+        this.setLayout(new BorderLayout());
+        this.game = game;
+        events = new GameEvents(game);
+        canvas = new BoardCanvas(game.getBoard());
+        this.labelUpdate = labelUpdate;
+        xController = x;
+        oController = o;
+
+        this.add(canvas, BorderLayout.CENTER);
+        canvas.setCellListener(this);
+        game.addGameListener(this); // After the events, so they are published in order
+        events.subscribe("ui", this);
     }
 
     /**
-     * Resets the game board, clearing all tiles and resetting the AI.
+     * Resets the game board, clearing all squares and cancelling any move being worked out.
+     * If an AI was to move against a person, the turn goes back to the person so they keep
+     * their symbol.
      */
     public void reset() {
-        for (int i = 0; i < myTitles.length; i++) {
-            myTitles[i].clear(); // Clears each tile
+        xController.cancel(); // Drops any move an AI is still thinking about
+        oController.cancel();
+        game.reset(); // Clears the board, which repaints each square
+        if (!handBackTurn()) {
+            startTurn();
+        }
+    }
+
+    /**
+     * Puts a new controller on one side. The old one is cancelled, and if it is that side's turn
+     * the new one takes it over straight away.
+     *
+     * @param symbol The side ('x' or 'o').
+     * @param controller The new controller.
+     */
+    public void setController(char symbol, Controller controller) {
+        Controller old = controllerFor(symbol);
+        if (old == controller) {
+            return;
+        }
+        old.cancel();
+        if (symbol == 'x') {
+            xController = controller;
+        } else {
+            oController = controller;
+        }
+        if (game.getTurn() == symbol) {
+            startTurn();
         }
-        ai.reset(); // Resets the AI logic
+    }
+
+    /**
+     * Returns the controller of one side.
+     *
+     * @param symbol The side ('x' or 'o').
+     * @return Its controller.
+     */
+    public Controller controllerFor(char symbol) {
+        return (symbol == 'x') ? xController : oController;
+    }
+
+    /**
+     * Returns the events of the game shown by this panel, which anything else that follows the
+     * game can subscribe to.
+     *
+     * @return The game's events.
+     */
+    public GameEvents getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the headless game shown by this panel.
+     *
+     * @return The panel's game.
+     */
+    public Game getGame() {
+        return game;
     }
 
     /**
      * Returns the current player's symbol ('X' or 'O').
-     * 
+     *
      * @return The current player's symbol.
      */
     public char getTurn() {
-        return myTurn;
+        return game.getTurn();
     }
 
     /**
-     * Checks the game board for a winner. It checks all rows, columns, and diagonals for
-     * three matching symbols ('X' or 'O'). If a winner is found, the game is marked as stopped.
+     * Nothing to do here; the square is repainted when its event arrives.
+     *
+     * @param cell The square index.
+     * @param symbol The new symbol on the square.
      */
-    public void checkWinner() {
-        // Check rows for a winner
-        for (int i = 0; i < myTitles.length; i += 3) {
-            if (stop == false && myTitles[i].getSymbol() == myTitles[1 + i].getSymbol() && myTitles[1 + i].getSymbol() == myTitles[2 + i].getSymbol()) {
-                if (getTurn() == myTitles[i].getSymbol()) {
-                    for (int x = 0; x < myTitles.length; x++) {
-                        myTitles[x].setSymbol(myTurn); // Set all tiles to the winning symbol
-                    }
-                    LifeSystem.CheckLife(myTitles[2 + i].getSymbol()); // Update life system
-                    stop = true;
-                }
-            }
-        }
-
-        // Check columns for a winner
-        for (int i = 0; i < 3; i++) {
-            if (stop == false && myTitles[i].getSymbol() == myTitles[3 + i].getSymbol() && myTitles[3 + i].getSymbol() == myTitles[6 + i].getSymbol()) {
-                if (getTurn() == myTitles[i].getSymbol()) {
-                    for (int x = 0; x < myTitles.length; x++) {
-                        myTitles[x].setSymbol(myTurn);
-                    }
-                    LifeSystem.CheckLife(myTitles[6 + i].getSymbol());
-                    stop = true;
-                }
-            }
-        }
-
-        // Check diagonals for a winner
-        if (stop == false && myTitles[0].getSymbol() == myTitles[4].getSymbol() && myTitles[4].getSymbol() == myTitles[8].getSymbol()) {
-            if (getTurn() == myTitles[0].getSymbol()) {
-                for (int x = 0; x < myTitles.length; x++) {
-                    myTitles[x].setSymbol(myTurn);
-                }
-                LifeSystem.CheckLife(myTitles[8].getSymbol());
-                stop = true;
-            }
-        }
+    public void squareChanged(int cell, char symbol) {
+    }
 
-        if (stop == false && myTitles[2].getSymbol() == myTitles[4].getSymbol() && myTitles[4].getSymbol() == myTitles[6].getSymbol()) {
-            if (getTurn() == myTitles[6].getSymbol()) {
-                for (int x = 0; x < myTitles.length; x++) {
-                    myTitles[x].setSymbol(myTurn);
-                }
-                LifeSystem.CheckLife(myTitles[6].getSymbol());
-                stop = true;
-            }
+    /**
+     * Hands the turn to the controller of the side whose turn it now is. Once the board is
+     * full nobody moves until it is reset.
+     *
+     * @param turn The symbol of the player whose turn it now is.
+     */
+    public void turnChanged(char turn) {
+        if (!handBackTurn()) {
+            startTurn();
         }
+    }
 
-        stop = false; // Reset the stop flag after checking
+    /**
+     * Nothing to do here; the death screen is shown when the event arrives.
+     *
+     * @param deadMan The name of the player who has "died".
+     */
+    public void gameOver(String deadMan) {
     }
 
     /**
-     * Switches the turn between players 'X' and 'O'. Updates the turn label to reflect the current player.
+     * Follows the game's events on the panel's subscriber thread. Squares are repainted as they
+     * come, which Swing allows from any thread; the labels and the death screen are updated on
+     * the Event Dispatch Thread once per batch.
+     *
+     * @param event The event.
+     * @param endOfBatch Whether it is the last event for now.
      */
-    private void switchTurn() {
-        myTurn = (myTurn == 'x') ? 'o' : 'x'; // Toggle turn between 'x' and 'o'
-        Interface.update(myTurnL); // Update the turn label
+    public void onEvent(long event, boolean endOfBatch) {
+        switch (GameEvents.type(event)) {
+            case GameEvents.SQUARE:
+                canvas.repaintCell(GameEvents.value(event));
+                break;
+            case GameEvents.TURN:
+            case GameEvents.LIFE:
+                labelsChanged = true;
+                break;
+            case GameEvents.GAME_OVER:
+                died = GameEvents.symbol(event);
+                labelsChanged = true;
+                break;
+            case GameEvents.LAPPED:
+                canvas.repaint();
+                labelsChanged = true;
+                break;
+            default:
+                break;
+        }
+
+        if (endOfBatch && labelsChanged) {
+            final char deadMan = died;
+            SwingUtilities.invokeLater(() -> {
+                labelUpdate.run();
+                if (deadMan != '-') {
+                    DeathScreen.CreateDeathScreen(String.valueOf(deadMan));
+                }
+            });
+            labelsChanged = false;
+            died = '-';
+        }
     }
 
     /**
-     * Changes the background and foreground colors of the tiles based on the color sliders.
-     * This method is called repeatedly to update the board's appearance.
+     * Changes the background and foreground colors of the board based on the color sliders.
+     * This method is called by the interface whenever the chosen colour changes.
      */
     public void colourChange() {
-        for (int i = 0; i < myTitles.length; i++) {
-            myTitles[i].setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
-            myTitles[i].setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
-        }
-        this.revalidate(); // Revalidate the panel to apply changes
-        this.repaint(); // Repaint the panel to update the display
+        canvas.setTheme(ColourPicker.getTheme()); // Repaints the whole board
     }
 
     /**
-     * Handles the player's turn when a tile is clicked.
-     * The selected tile is updated with the current player's symbol, and the winner is checked.
-     * After that, the turn is switched to the other player.
-     * 
-     * @param clicked The tile that was clicked by the player.
+     * Handles a click on a square. It is played for the side whose turn it is if that side
+     * takes clicks; clicks are ignored while an AI is to move.
+     *
+     * @param cell The square index that was clicked.
      */
-    public void playersTurn(Title clicked) {
-        clicked.setSymbol(myTurn); // Set the clicked tile's symbol
-        checkWinner(); // Check if this move results in a win
-        switchTurn(); // Switch the turn to the other player
+    public void cellClicked(int cell) {
+        if (controllerFor(game.getTurn()).takesClicks()) {
+            game.play(cell); // Place the symbol, check for a win and switch the turn
+        }
     }
 
     /**
-     * Makes the AI perform its turn. The AI blocks or wins based on the current board state.
-     * After making a move, the winner is checked and the turn is switched.
-     * The AI's move is followed by a slight delay to simulate thinking.
+     * Tells the side whose turn it is to move, if there is anything left to play.
      */
-    public void aiTurn() {
-        myTitles = ai.blockAndWinsMove(myTitles); // AI makes its move
-        checkWinner(); // Check if the AI's move results in a win
-        switchTurn(); // Switch the turn to the player
-        try {
-            Thread.sleep(rand.nextInt(165)); // Introduce a slight delay to simulate AI thinking
-        } catch (InterruptedException e) {
-            System.out.println("The AI's thinking time was interrupted");
+    private void startTurn() {
+        if (game.getBoard().freeCount() > 0) {
+            controllerFor(game.getTurn()).turnStarted(game, game.getTurn());
         }
     }
 
     /**
-     * Handles the action event when a tile is clicked.
-     * The tile is passed to the player's turn method, and then the AI's turn is triggered.
-     * 
-     * @param a The action event triggered by the tile click.
+     * Passes the turn back to a person when an AI would otherwise be to move on a finished or
+     * freshly cleared board, so that against the AI the person always starts.
+     *
+     * @return true if the turn was passed, which starts the person's turn.
      */
-    public void actionPerformed(ActionEvent a) {
-        Title clicked = (Title) a.getSource(); // Get the clicked tile
-        if (clicked.used()) { 
-           
-        	playersTurn(clicked); // Handle player's turn
-            aiTurn(); // AI takes its turn after the player
+    private boolean handBackTurn() {
+        char turn = game.getTurn();
+        char other = (turn == 'x') ? 'o' : 'x';
+        Board board = game.getBoard();
+        boolean fresh = board.freeCount() == 0 || board.freeCount() == board.cells();
+        if (fresh && !controllerFor(turn).takesClicks() && controllerFor(other).takesClicks()) {
+            game.pass();
+            return true;
         }
+        return false;
     }
 }
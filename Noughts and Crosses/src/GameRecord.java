@@ -0,0 +1,257 @@
+import java.nio.ByteBuffer;
+
+/**
+ * One game as it is stored in a {@link GameJournal}: the board size, who moved first, the
+ * squares played in order, the result and both life totals when the game started. A record is
+ * meant to be reused, so writing or scanning millions of games allocates nothing per game.
+ * <p>
+ * The encoding is as dense as it can be while still being read front to back:
+ * <pre>
+ * varint  moves &lt;&lt; 4 | classic &lt;&lt; 3 | result &lt;&lt; 1 | x first
+ * varint  width, height, k              only when the board is not the classic 3x3
+ * varint  X's lives, O's lives          zigzag encoded, as they were when the game started
+ * moves   classic: 4 bits each, two to a byte, first move in the low half
+ *         otherwise: one varint each
+ * </pre>
+ * Players take turns, so only the first mover is stored. The winner of a game loses a life,
+ * so the life totals after the game follow from the ones before it and the result.
+ */
+public class GameRecord {
+
+    /**
+     * Result of a game that was abandoned before it finished.
+     */
+    public static final int UNFINISHED = 0;
+
+    /**
+     * Result of a game won by 'x'.
+     */
+    public static final int X_WON = 1;
+
+    /**
+     * Result of a game won by 'o'.
+     */
+    public static final int O_WON = 2;
+
+    /**
+     * Result of a drawn game.
+     */
+    public static final int DRAW = 3;
+
+    /**
+     * Most bytes a classic 3x3 record can take.
+     */
+    public static final int MAX_CLASSIC_SIZE = 5 + 5 + 5 + 5;
+
+    /**
+     * Most squares a recorded board can have. A bigger board can only come from a corrupt record.
+     */
+    static final int MAX_CELLS = 1 << 20;
+
+    /**
+     * The number of columns.
+     */
+    int width = 3;
+
+    /**
+     * The number of rows.
+     */
+    int height = 3;
+
+    /**
+     * How many symbols in a row win.
+     */
+    int k = 3;
+
+    /**
+     * The symbol that moved first ('x' or 'o').
+     */
+    char first = 'o';
+
+    /**
+     * How the game ended, one of the result constants such as {@link #X_WON}.
+     */
+    int result = UNFINISHED;
+
+    /**
+     * X's life total when the game started.
+     */
+    int xLives;
+
+    /**
+     * O's life total when the game started.
+     */
+    int oLives;
+
+    /**
+     * The squares played, in order; only the first {@link #moveCount} are used.
+     */
+    int[] moves = new int[9];
+
+    /**
+     * How many moves were played.
+     */
+    int moveCount;
+
+    /**
+     * Empties the record and sets the board it is played on, keeping the move array if it is
+     * big enough.
+     *
+     * @param width The number of columns.
+     * @param height The number of rows.
+     * @param k How many symbols in a row win.
+     */
+    public void clear(int width, int height, int k) {
+        this.width = width;
+        this.height = height;
+        this.k = k;
+        if (moves.length < width * height) {
+            moves = new int[width * height];
+        }
+        moveCount = 0;
+        result = UNFINISHED;
+    }
+
+    /**
+     * Adds a move to the record.
+     *
+     * @param cell The square played.
+     */
+    public void addMove(int cell) {
+        moves[moveCount++] = cell;
+    }
+
+    /**
+     * Returns whether the game is played on the classic 3x3 board.
+     *
+     * @return true for 3x3 with three in a row.
+     */
+    public boolean isClassic() {
+        return width == 3 && height == 3 && k == 3;
+    }
+
+    /**
+     * Returns the most bytes this record can take when encoded.
+     *
+     * @return An upper bound on the encoded size.
+     */
+    public int maxSize() {
+        return isClassic() ? MAX_CLASSIC_SIZE : 5 * (6 + moveCount);
+    }
+
+    /**
+     * Appends the record to a buffer, which must have at least {@link #maxSize()} bytes left.
+     *
+     * @param out The buffer to write to.
+     */
+    public void encode(ByteBuffer out) {
+        boolean classic = isClassic();
+        putVarint(out, moveCount << 4 | (classic ? 8 : 0) | result << 1 | (first == 'x' ? 1 : 0));
+        if (!classic) {
+            putVarint(out, width);
+            putVarint(out, height);
+            putVarint(out, k);
+        }
+        putVarint(out, xLives << 1 ^ xLives >> 31);
+        putVarint(out, oLives << 1 ^ oLives >> 31);
+
+        if (classic) {
+            for (int i = 0; i < moveCount; i += 2) {
+                int high = (i + 1 < moveCount) ? moves[i + 1] : 0;
+                out.put((byte) (moves[i] | high << 4));
+            }
+        } else {
+            for (int i = 0; i < moveCount; i++) {
+                putVarint(out, moves[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the next record from a buffer into this one. A record that makes no sense, such as
+     * one with more moves than squares or a move off the board, is rejected rather than read.
+     *
+     * @param in The buffer to read from, positioned at the start of a record.
+     * @throws IllegalArgumentException If the record is corrupt.
+     * @throws java.nio.BufferUnderflowException If the record is cut short.
+     */
+    public void decode(ByteBuffer in) {
+        int header = getVarint(in);
+        int count = header >>> 4;
+        if ((header & 8) != 0) {
+            clear(3, 3, 3);
+        } else {
+            int w = getVarint(in);
+            int h = getVarint(in);
+            int rowLength = getVarint(in);
+            if (w < 1 || h < 1 || rowLength < 1 || (long) w * h > MAX_CELLS) {
+                throw new IllegalArgumentException("Corrupt record for a " + w + "x" + h + " board");
+            }
+            clear(w, h, rowLength);
+        }
+        int cells = width * height;
+        if (count > cells) {
+            throw new IllegalArgumentException("Corrupt record with " + count + " moves on " + cells + " squares");
+        }
+        result = (header >>> 1) & 3;
+        first = ((header & 1) != 0) ? 'x' : 'o';
+        int x = getVarint(in);
+        int o = getVarint(in);
+        xLives = x >>> 1 ^ -(x & 1);
+        oLives = o >>> 1 ^ -(o & 1);
+
+        if (isClassic()) {
+            for (int i = 0; i < count; i += 2) {
+                int pair = in.get() & 0xFF;
+                moves[i] = pair & 0xF;
+                if (i + 1 < count) {
+                    moves[i + 1] = pair >>> 4;
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                moves[i] = getVarint(in);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (moves[i] < 0 || moves[i] >= cells) {
+                throw new IllegalArgumentException("Corrupt record with a move on square " + moves[i]);
+            }
+        }
+        moveCount = count;
+    }
+
+    /**
+     * Writes an int as a varint, seven bits a byte with the top bit meaning more follow.
+     *
+     * @param out The buffer to write to.
+     * @param value The value, treated as unsigned.
+     */
+    static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Reads a varint written by {@link #putVarint}.
+     *
+     * @param in The buffer to read from.
+     * @return The value.
+     */
+    static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 28) {
+                throw new IllegalArgumentException("Corrupt record with a number over five bytes long");
+            }
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
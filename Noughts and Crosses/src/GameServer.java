@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts many games at once over a plain text protocol on a local TCP port. Every connection
+ * gets its own {@link GameSession} with its own board, turn, lives and AI, running on its own
+ * thread. The threads are created with a small stack so that thousands of sessions fit in
+ * memory; blocking reads park them in the kernel, so idle sessions cost no CPU. At most
+ * {@link #MAX_SESSIONS} are open at once; further connections are answered with {@code ERR} and
+ * closed. Every game
+ * gets a number, and if the server has a {@link SpectatorServer} its changes are published there
+ * under that number. If the server has a {@link GameJournal}, every game is written to it. It is started with {@link RunnerServer}.
+ */
+public class GameServer {
+
+    /**
+     * Stack size of each session thread, in bytes. Sessions never recurse deeply, except for the
+     * AI's searches, which stay well inside this.
+     */
+    static final long STACK_SIZE = 256 * 1024;
+
+    /**
+     * Longest {@link #close()} waits for the open sessions to finish their games, in milliseconds.
+     */
+    static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    /**
+     * Most sessions open at once. Each holds a thread with a {@link #STACK_SIZE} stack, so this
+     * bounds the memory the server can be made to use.
+     */
+    static final int MAX_SESSIONS = 10_000;
+
+    /**
+     * Shortest time between two reports of failed sessions, in milliseconds.
+     */
+    static final long FAILURE_REPORT_MILLIS = 10_000;
+
+    /**
+     * What a connection is told when the server already has {@link #MAX_SESSIONS} open.
+     */
+    private static final byte[] FULL = "ERR the server is full\n".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The socket new connections arrive on.
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Threads the sessions run on, one per connection.
+     */
+    private final ExecutorService sessions = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(null, runnable, "game-session", STACK_SIZE);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Number of sessions currently open.
+     */
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    /**
+     * The sessions currently open, so that closing the server can end them.
+     */
+    private final Set<GameSession> open = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Sessions that failed since the last report.
+     */
+    private int failures;
+
+    /**
+     * When failed sessions were last reported, from {@link System#nanoTime()}.
+     */
+    private long lastFailureReport = System.nanoTime() - FAILURE_REPORT_MILLIS * 1_000_000;
+
+    /**
+     * The number given to the next session's game.
+     */
+    private final AtomicInteger nextGame = new AtomicInteger(1);
+
+    /**
+     * Where the games' changes are published, or {@code null} if nobody can watch.
+     */
+    private final SpectatorServer spectators;
+
+    /**
+     * Where finished games are written, or {@code null} if they are not kept.
+     */
+    private final GameJournal journal;
+
+    /**
+     * Opens the server on a port of the local machine. Connections are not accepted until
+     * {@link #serve()} is called.
+     *
+     * @param port The port to listen on, or 0 to pick any free port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public GameServer(int port) throws IOException {
+        this(port, null);
+    }
+
+    /**
+     * Opens the server on a port of the local machine, publishing every game to spectators.
+     * Connections are not accepted until {@link #serve()} is called.
+     *
+     * @param port The port to listen on, or 0 to pick any free port.
+     * @param spectators Where the games' changes are published, or {@code null} for nowhere.
+     * @throws IOException If the port cannot be opened.
+     */
+    public GameServer(int port, SpectatorServer spectators) throws IOException {
+        this(port, spectators, null);
+    }
+
+    /**
+     * Opens the server on a port of the local machine, publishing every game to spectators and
+     * writing it to a journal. Connections are not accepted until {@link #serve()} is called.
+     *
+     * @param port The port to listen on, or 0 to pick any free port.
+     * @param spectators Where the games' changes are published, or {@code null} for nowhere.
+     * @param journal Where finished games are written, or {@code null} if they are not kept.
+     * @throws IOException If the port cannot be opened.
+     */
+    public GameServer(int port, SpectatorServer spectators, GameJournal journal) throws IOException {
+        this.spectators = spectators;
+        this.journal = journal;
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The port number.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns where the games' changes are published.
+     *
+     * @return The spectator server, or {@code null} if nobody can watch.
+     */
+    public SpectatorServer getSpectators() {
+        return spectators;
+    }
+
+    /**
+     * Returns where finished games are written.
+     *
+     * @return The journal, or {@code null} if games are not kept.
+     */
+    public GameJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Gives out the number of a new game.
+     *
+     * @return A number no other game on this server has had.
+     */
+    int nextGameId() {
+        return nextGame.getAndIncrement();
+    }
+
+    /**
+     * Returns the number of sessions currently open.
+     *
+     * @return The session count.
+     */
+    public int getOpenSessions() {
+        return openSessions.get();
+    }
+
+    /**
+     * Accepts connections and starts a session for each one, until the server is closed.
+     *
+     * @throws IOException If accepting a connection fails for any reason other than closing.
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return; // close() was called
+                }
+                throw e;
+            }
+            if (openSessions.get() >= MAX_SESSIONS) {
+                refuse(socket);
+                continue;
+            }
+            GameSession session = new GameSession(socket, this);
+            openSessions.incrementAndGet();
+            open.add(session);
+            sessions.execute(session);
+        }
+    }
+
+    /**
+     * Stops accepting connections, ends every open session and waits up to
+     * {@link #CLOSE_TIMEOUT_MILLIS} for them to finish, so that nothing writes to the journal
+     * once this returns.
+     *
+     * @throws IOException If the socket cannot be closed.
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdown();
+        for (GameSession session : open) {
+            session.close();
+        }
+        try {
+            sessions.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Turns a connection away because the server is full.
+     *
+     * @param socket The connection.
+     */
+    private void refuse(Socket socket) {
+        try (Socket connection = socket) {
+            OutputStream out = connection.getOutputStream();
+            out.write(FULL);
+            out.flush();
+        } catch (IOException e) {
+            // The client has gone already
+        }
+    }
+
+    /**
+     * Called by a session whose connection failed. Failures are counted and reported at most
+     * once every {@link #FAILURE_REPORT_MILLIS}, so that a flood of broken clients cannot flood
+     * the output as well.
+     *
+     * @param e Why it failed.
+     */
+    synchronized void sessionFailed(IOException e) {
+        failures++;
+        long now = System.nanoTime();
+        if (now - lastFailureReport >= FAILURE_REPORT_MILLIS * 1_000_000) {
+            System.out.println(failures + " game session(s) failed, the last with: " + e.getMessage());
+            failures = 0;
+            lastFailureReport = now;
+        }
+    }
+
+    /**
+     * Called by a session when its connection has closed.
+     *
+     * @param session The session that ended.
+     */
+    void sessionEnded(GameSession session) {
+        open.remove(session);
+        openSessions.decrementAndGet();
+    }
+}
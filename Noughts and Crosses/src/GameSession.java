@@ -0,0 +1,352 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * One player's connection to the {@link GameServer}. Each session owns its own {@link Game},
+ * {@link LifeSystem} and {@link Ai}, so sessions share nothing and never wait on each other. The
+ * player plays 'o' and moves first, the AI answers as 'x', just like the window.
+ * <p>
+ * The protocol is one command per line, answered with one or more lines:
+ * <pre>
+ * PLAY cell          MOVE o cell, MOVE x cell, then WIN symbol or DRAW if the game ended
+ * NEW [w h k]        a fresh board, optionally of another size up to 32x32, then BOARD
+ * LEVEL name         OK, or ERR if the AI level is unknown or not played over the network
+ * BOARD              BOARD w h k turn squares, with squares as a string of 'x', 'o' and '-'
+ * LIVES              LIVES x o
+ * STATS              STATS x o xdeaths odeaths, lives lost and times run out in every session
+ * QUIT               BYE, then the connection is closed
+ * </pre>
+ * The greeting is followed by {@code GAME id}, the number spectators use to watch the game on
+ * the server's {@link SpectatorServer}. When a player runs out of lives the session also sends
+ * {@code GAMEOVER name}, where the name is the same one the window's death screen shows.
+ * Anything it does not understand is answered with {@code ERR} and a reason.
+ */
+public class GameSession implements Runnable, GameListener, LifeListener {
+
+    /**
+     * Size of the read and write buffers, kept small because there can be thousands of sessions.
+     */
+    static final int BUFFER_SIZE = 512;
+
+    /**
+     * How long a connection may sit idle before it is closed, in milliseconds.
+     */
+    static final int IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * Largest width or height a player may ask for. It keeps every board small enough for the
+     * spectator records and a session's memory to a few kilobytes.
+     */
+    static final int MAX_SIDE = 32;
+
+    /**
+     * The connection to the player.
+     */
+    private final Socket socket;
+
+    /**
+     * Whether the server closed the connection itself, so a failed read is expected.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The server that accepted the connection, told when the session ends.
+     */
+    private final GameServer server;
+
+    /**
+     * The number of this session's game on the server.
+     */
+    private final int id;
+
+    /**
+     * Where changes to the game are published, or {@code null} if nobody can watch.
+     */
+    private final SpectatorServer spectators;
+
+    /**
+     * Writes the session's games to the server's journal, or {@code null} if they are not kept.
+     */
+    private JournalRecorder recorder;
+
+    /**
+     * The life totals of this session, kept when the board is replaced.
+     */
+    private final LifeSystem lives = new LifeSystem();
+
+    /**
+     * The game being played.
+     */
+    private Game game;
+
+    /**
+     * The AI the player plays against.
+     */
+    private final Ai ai = new Ai();
+
+    /**
+     * Where answers are written, flushed once per command.
+     */
+    private PrintWriter out;
+
+    /**
+     * Creates a session for a new connection.
+     *
+     * @param socket The connection to the player.
+     * @param server The server that accepted it.
+     */
+    public GameSession(Socket socket, GameServer server) {
+        this.socket = socket;
+        this.server = server;
+        id = server.nextGameId();
+        spectators = server.getSpectators();
+        lives.addLifeListener(this);
+        newGame(3, 3, 3);
+    }
+
+    /**
+     * Reads commands until the player quits, disconnects or goes idle.
+     */
+    @Override
+    public void run() {
+        try (Socket connection = socket) {
+            connection.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            connection.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII), BUFFER_SIZE);
+            Writer writer = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII);
+            out = new PrintWriter(new BufferedWriter(writer, BUFFER_SIZE));
+
+            out.println("HELLO noughts-and-crosses");
+            out.println("GAME " + id);
+            sendBoard();
+            out.flush();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean open = handle(line.trim());
+                out.flush();
+                if (!open) {
+                    break;
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            // The player went idle, so the connection is simply closed
+        } catch (IOException e) {
+            if (!closed) {
+                server.sessionFailed(e);
+            }
+        } finally {
+            if (recorder != null) {
+                recorder.finish();
+            }
+            if (spectators != null) {
+                spectators.endFeed(id);
+            }
+            server.sessionEnded(this);
+        }
+    }
+
+    /**
+     * Ends the session from another thread by closing its connection. The session then finishes
+     * its game as if the player had left.
+     */
+    void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Carries out one command.
+     *
+     * @param line The command line, without surrounding spaces.
+     * @return false if the session should end.
+     */
+    boolean handle(String line) {
+        String[] words = line.split("\\s+");
+        String command = words[0].toUpperCase(Locale.ROOT);
+        try {
+            switch (command) {
+                case "PLAY":
+                    play(Integer.parseInt(words[1]));
+                    return true;
+                case "NEW":
+                    if (words.length >= 4) {
+                        newGame(Integer.parseInt(words[1]), Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+                    } else {
+                        newGame(game.getBoard().width(), game.getBoard().height(), game.getBoard().k());
+                    }
+                    sendBoard();
+                    return true;
+                case "LEVEL":
+                    int level = RunnerSimulation.level(words[1]);
+                    if (level == Ai.MCTS || level == Ai.DEEPENING) {
+                        // Their search trees and move buffers are kept between moves, far more
+                        // than a session can afford when there are thousands of them
+                        out.println("ERR the " + Ai.LEVEL_NAMES[level] + " level is not played over the network");
+                        return true;
+                    }
+                    ai.setLevel(level);
+                    out.println("OK");
+                    return true;
+                case "BOARD":
+                    sendBoard();
+                    return true;
+                case "LIVES":
+                    out.println("LIVES " + lives.xLives() + " " + lives.oLives());
+                    return true;
+                case "STATS":
+                    out.println("STATS " + LifeSystem.totalLivesLost('x') + " " + LifeSystem.totalLivesLost('o')
+                            + " " + LifeSystem.totalDeaths('x') + " " + LifeSystem.totalDeaths('o'));
+                    return true;
+                case "QUIT":
+                    out.println("BYE");
+                    return false;
+                default:
+                    out.println("ERR unknown command " + words[0]);
+                    return true;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            out.println("ERR " + command + " is missing an argument");
+        } catch (IllegalArgumentException e) {
+            out.println("ERR " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Plays the player's move and, if the game goes on, the AI's answer.
+     *
+     * @param cell The square the player chose.
+     */
+    private void play(int cell) {
+        Board board = game.getBoard();
+        if (cell < 0 || cell >= board.cells() || !board.isFree(cell)) {
+            out.println("ERR square " + cell + " is not free");
+            return;
+        }
+
+        char player = game.getTurn();
+        game.play(cell);
+        out.println("MOVE " + player + " " + cell);
+        if (finished(cell)) {
+            game.pass(); // The player keeps their symbol for the next game
+            return;
+        }
+
+        char symbol = game.getTurn();
+        int move = ai.move(board, symbol);
+        game.playAiMove(move);
+        if (move != -1) {
+            out.println("MOVE " + symbol + " " + move);
+            finished(move);
+        }
+    }
+
+    /**
+     * Reports the end of the game if the last move ended it.
+     *
+     * @param cell The square just played.
+     * @return true if the game is over.
+     */
+    private boolean finished(int cell) {
+        Board board = game.getBoard();
+        if (board.wins(cell)) {
+            out.println("WIN " + board.get(cell));
+            return true;
+        }
+        if (board.isFull()) {
+            out.println("DRAW");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts a fresh game, giving both players their lives back if one of them had run out.
+     *
+     * @param width The number of columns.
+     * @param height The number of rows.
+     * @param k How many symbols in a row are needed to win.
+     */
+    private void newGame(int width, int height, int k) {
+        if (width > MAX_SIDE || height > MAX_SIDE) {
+            throw new IllegalArgumentException("Boards can be at most " + MAX_SIDE + "x" + MAX_SIDE);
+        }
+        if (lives.isOver()) {
+            lives.reset();
+        }
+        Game next = new Game(width, height, k, lives);
+        next.addGameListener(this);
+        if (server.getJournal() != null) {
+            if (recorder != null) {
+                recorder.finish();
+            }
+            recorder = new JournalRecorder(next, server.getJournal());
+            next.addGameListener(recorder);
+        }
+        game = next;
+        if (spectators != null) {
+            spectators.publishBoard(id, next.getBoard(), lives);
+        }
+    }
+
+    /**
+     * Sends the whole board.
+     */
+    private void sendBoard() {
+        Board board = game.getBoard();
+        StringBuilder line = new StringBuilder(16 + board.cells());
+        line.append("BOARD ").append(board.width()).append(' ').append(board.height()).append(' ')
+                .append(board.k()).append(' ').append(game.getTurn()).append(' ');
+        for (int cell = 0; cell < board.cells(); cell++) {
+            line.append(board.get(cell));
+        }
+        out.println(line);
+    }
+
+    @Override
+    public void squareChanged(int cell, char symbol) {
+        // The player is told about moves by play(); spectators see every square
+        if (spectators != null) {
+            spectators.publishSquare(id, cell, symbol, lives);
+        }
+    }
+
+    @Override
+    public void turnChanged(char turn) {
+    }
+
+    @Override
+    public void gameOver(String deadMan) {
+        out.println("GAMEOVER " + deadMan);
+        if (spectators != null) {
+            spectators.publishGameOver(id, deadMan, lives);
+        }
+    }
+
+    @Override
+    public void lifeLost(char symbol, int livesLeft) {
+        if (spectators != null) {
+            spectators.publishLives(id, lives);
+        }
+    }
+
+    @Override
+    public void outOfLives(char symbol) {
+        // The game tells the player and spectators, naming the player the way the window does
+    }
+}
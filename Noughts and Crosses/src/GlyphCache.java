@@ -0,0 +1,107 @@
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * The {@code GlyphCache} class keeps a ready-drawn image of each kind of square: X, O and the
+ * free '-' square, each with its background and grid lines. Drawing a square is then a single
+ * copy of an image instead of a font lookup and text layout. The images are drawn again only
+ * when the square size or the {@link Theme} changes, which is when the window is resized or a
+ * colour is picked.
+ * <p>
+ * The symbol font is looked up once for the whole program, and every size of it is derived
+ * from that one instance.
+ */
+public class GlyphCache {
+
+    /**
+     * The font the symbols are drawn in, looked up once.
+     */
+    static final Font SYMBOL_FONT = new Font("Hobbiton Brushhand", Font.PLAIN, 100);
+
+    /**
+     * Width of the lines around each square, in pixels.
+     */
+    static final int LINE_WIDTH = 2;
+
+    /**
+     * The symbols there is an image for, in the order of {@link #images}.
+     */
+    static final String SYMBOLS = "xo-";
+
+    /**
+     * The square size the images were drawn for, or -1 before the first one is drawn.
+     */
+    private int size = -1;
+
+    /**
+     * The colours the images were drawn with.
+     */
+    private Theme theme;
+
+    /**
+     * The image of each square, indexed like {@link #SYMBOLS}.
+     */
+    private final BufferedImage[] images = new BufferedImage[SYMBOLS.length()];
+
+    /**
+     * Returns the symbol font in another style and size, derived from the font looked up once.
+     *
+     * @param style The style, such as {@link Font#BOLD}.
+     * @param points The size in points.
+     * @return The font.
+     */
+    static Font symbolFont(int style, float points) {
+        return SYMBOL_FONT.deriveFont(style, points);
+    }
+
+    /**
+     * Returns the image of a square, drawing all three images again first if the size or theme
+     * differ from the last call. Themes are only rebuilt when a colour changes, so comparing the
+     * instance is enough.
+     *
+     * @param symbol 'x', 'o' or '-'.
+     * @param newSize The length of a square's side in pixels.
+     * @param newTheme The colours of the square, its lines and its symbol.
+     * @return An opaque image {@code newSize} pixels square.
+     */
+    public BufferedImage square(char symbol, int newSize, Theme newTheme) {
+        if (newSize != size || newTheme != theme) {
+            size = newSize;
+            theme = newTheme;
+            for (int i = 0; i < images.length; i++) {
+                images[i] = draw(SYMBOLS.charAt(i));
+            }
+        }
+        int index = SYMBOLS.indexOf(symbol);
+        return images[(index == -1) ? images.length - 1 : index];
+    }
+
+    /**
+     * Draws one square at the current size and colours.
+     *
+     * @param symbol 'x', 'o' or '-'.
+     * @return The image.
+     */
+    private BufferedImage draw(char symbol) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(theme.getBackground());
+        g.fillRect(0, 0, size, size);
+        g.setColor(theme.getLine());
+        for (int line = 0; line < LINE_WIDTH; line++) {
+            g.drawRect(line, line, size - 1 - 2 * line, size - 1 - 2 * line);
+        }
+        g.setColor(theme.getForeground());
+
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(symbolFont(Font.PLAIN, size * 2 / 3f));
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(String.valueOf(symbol), (size - metrics.charWidth(symbol)) / 2,
+                (size - metrics.getHeight()) / 2 + metrics.getAscent());
+        g.dispose();
+        return image;
+    }
+}
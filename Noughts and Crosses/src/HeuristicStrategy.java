@@ -0,0 +1,103 @@
+import java.util.Random;
+
+/**
+ * The {@code HeuristicStrategy} class plays a square that wins or blocks a win on the next move,
+ * and otherwise a random free square. It only looks one move ahead, so it is easy to beat with a
+ * fork, which is what makes it a fair opponent.
+ * <p>
+ * On the classic 3x3 {@link Bitboard} the lines are checked with a few mask operations, in the
+ * order rows, columns, diagonals, and the first line with two of one symbol and a free square
+ * gives the move, whether it wins or blocks. Other boards are scanned square by square, taking a
+ * win before a block. Neither way allocates anything.
+ */
+public class HeuristicStrategy implements Strategy {
+
+    /**
+     * Where the random guesses come from.
+     */
+    private final Random rand;
+
+    /**
+     * Creates a strategy with its own random numbers.
+     */
+    public HeuristicStrategy() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a strategy that draws its guesses from the given random numbers.
+     * 
+     * @param rand Where the random guesses come from.
+     */
+    public HeuristicStrategy(Random rand) {
+        this.rand = rand;
+    }
+
+    @Override
+    public int move(BoardView board, char symbol) {
+        int move;
+        if (board instanceof Bitboard) {
+            move = ((Bitboard) board).findWinOrBlock();
+        } else {
+            char other = (symbol == 'x') ? 'o' : 'x';
+            move = completingSquare(board, symbol);
+            if (move == -1) {
+                move = completingSquare(board, other);
+            }
+        }
+
+        // Make a random move if no winning or blocking moves are found
+        if (move == -1) {
+            move = RandomStrategy.randomMove(board, rand);
+        }
+        return move;
+    }
+
+    /**
+     * Finds a free square that would give a player K in a row.
+     * 
+     * @param board The board to look at.
+     * @param symbol The player ('x' or 'o').
+     * @return The lowest such square, or -1 if there is none.
+     */
+    static int completingSquare(BoardView board, char symbol) {
+        for (int cell = 0; cell < board.cells(); cell++) {
+            if (board.isFree(cell) && (run(board, cell, symbol, 1, 0) >= board.k()
+                    || run(board, cell, symbol, 0, 1) >= board.k()
+                    || run(board, cell, symbol, 1, 1) >= board.k()
+                    || run(board, cell, symbol, 1, -1) >= board.k())) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts how long a run a player would have through a square along one direction if they
+     * played there.
+     * 
+     * @param board The board to look at.
+     * @param cell The square, which is free.
+     * @param symbol The player ('x' or 'o').
+     * @param dx The column step of the direction.
+     * @param dy The row step of the direction.
+     * @return The length of the run, counting the square itself.
+     */
+    static int run(BoardView board, int cell, char symbol, int dx, int dy) {
+        int width = board.width();
+        int height = board.height();
+        int column = cell % width;
+        int row = cell / width;
+        int length = 1;
+        for (int side = -1; side <= 1; side += 2) {
+            int c = column + side * dx;
+            int r = row + side * dy;
+            while (c >= 0 && c < width && r >= 0 && r < height && board.get(r * width + c) == symbol) {
+                length++;
+                c += side * dx;
+                r += side * dy;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * The {@code HumanController} class is a side played by a person clicking on the board. It does
+ * nothing when its turn starts; the panel plays the square that is clicked.
+ */
+public class HumanController implements Controller {
+
+    @Override
+    public void turnStarted(Game game, char symbol) {
+    }
+
+    @Override
+    public boolean takesClicks() {
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+    }
+}
@@ -2,6 +2,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
@@ -9,43 +10,136 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 /**
  * The main interface panel for the game.
- * Handles buttons for reset, switching between AI and human modes, life displays, and game panels.
- * Manages the color picker functionality and updates colors in real-time.
+ * Handles buttons for reset, switching between AI and human modes, life displays, and the game panel.
+ * There is a single board at a time; a mode is just which {@link Controller} plays each side,
+ * and picking another board size starts a new game on a new panel.
+ * Manages the color picker functionality and updates colors whenever a slider moves.
  */
-public class Interface extends JPanel implements ActionListener {
+public class Interface extends JPanel implements ActionListener, ChangeListener {
 
     /**
-     * The game panel for AI gameplay.
+     * Mode where a person plays 'o' against the AI.
      */
-    private static GamePanel myGamePanel;
+    static final int VS_AI = 0;
 
     /**
-     * The game panel for human vs. human gameplay.
+     * Mode where two people take turns at the same board.
      */
-    private static GamePanelHuman humanGamePanel;
+    static final int VS_HUMAN = 1;
 
     /**
-     * Tracks whether the game is in human mode (true) or AI mode (false).
+     * Mode where the AI plays both sides.
      */
-    private boolean human = true;
+    static final int AI_VS_AI = 2;
+
+    /**
+     * Button text for each mode, indexed by mode.
+     */
+    static final String[] MODE_NAMES = {"Vs Ai", "Vs Human", "Ai vs Ai"};
+
+    /**
+     * The AI levels the difficulty button cycles through: the easy heuristic, perfect play from
+     * the tablebase, and the iterative deepening and Monte Carlo tree searches, which think for
+     * {@link AiController#THINKING_MILLIS}. Perfect play only knows the 3x3 board; the searches
+     * are the ones worth playing on the larger {@link #BOARD_SIZES}.
+     */
+    static final int[] DIFFICULTY_LEVELS = {Ai.HEURISTIC, Ai.PERFECT, Ai.DEEPENING, Ai.MCTS};
+
+    /**
+     * Button text for each difficulty, indexed like {@link #DIFFICULTY_LEVELS}.
+     */
+    static final String[] DIFFICULTY_NAMES = {"Ai: Easy", "Ai: Hard", "Ai: Deep", "Ai: MCTS"};
+
+    /**
+     * The boards the board button cycles through, each as width, height and how many in a row
+     * win.
+     */
+    static final int[][] BOARD_SIZES = {{3, 3, 3}, {7, 7, 4}, {15, 15, 5}};
+
+    /**
+     * Button text for each board, indexed like {@link #BOARD_SIZES}.
+     */
+    static final String[] BOARD_NAMES = {"Board: 3x3", "Board: 7x7", "Board: 15x15"};
+
+    /**
+     * The game panel, shared by every mode.
+     */
+    private GamePanel myGamePanel;
+
+    /**
+     * The side played by a person, used for 'o' and, against another person, for 'x'.
+     */
+    private final HumanController person = new HumanController();
+
+    /**
+     * The AI playing 'x'.
+     */
+    private final AiController ai = new AiController();
+
+    /**
+     * The AI playing 'o' when the AI plays itself.
+     */
+    private final AiController rival = new AiController();
+
+    /**
+     * Counts what happens in the game, following the game panel's events.
+     */
+    private final GameMetrics metrics = new GameMetrics();
+
+    /**
+     * The current mode, one of the mode constants such as {@link #VS_AI}.
+     */
+    private int mode = VS_AI;
+
+    /**
+     * The current difficulty, an index into {@link #DIFFICULTY_LEVELS}.
+     */
+    private int difficultyIndex = 0;
+
+    /**
+     * The current board, an index into {@link #BOARD_SIZES}.
+     */
+    private int boardIndex = 0;
+
+    /**
+     * Where games are written, or {@code null} if they are not recorded.
+     */
+    private GameJournal journal;
+
+    /**
+     * Writes the current panel's games to the {@link #journal}, or {@code null} if there is none.
+     */
+    private JournalRecorder recorder;
+
+    /**
+     * Where spectators watch the game, or {@code null} if nobody can.
+     */
+    private SpectatorServer spectators;
+
+    /**
+     * The game's number on the {@link #spectators} server.
+     */
+    private int spectatorId;
 
     /**
      * Button displaying the current turn (X or O).
      */
-    static JButton myTurnLabel;
+    JButton myTurnLabel = new JButton();
 
     /**
      * Button displaying the current life total for player X.
      */
-    static JButton Xlifes = new JButton();
+    JButton Xlifes = new JButton();
 
     /**
      * Button displaying the current life total for player O.
      */
-    static JButton Olifes = new JButton();
+    JButton Olifes = new JButton();
 
     /**
      * Button to reset the game.
@@ -53,17 +147,38 @@ public class Interface extends JPanel implements ActionListener {
     JButton reset;
 
     /**
-     * Button to toggle between AI and human gameplay.
+     * Button to cycle between the modes.
      */
     JButton aiHuman;
 
+    /**
+     * Button to cycle the AI through the {@link #DIFFICULTY_LEVELS}.
+     */
+    JButton difficulty;
+
+    /**
+     * Button to cycle through the {@link #BOARD_SIZES}.
+     */
+    JButton boardSize;
+
+    /**
+     * Panel stacking the difficulty and board buttons.
+     */
+    JPanel choicesPanel = new JPanel(new GridLayout(2, 1));
+
     /**
      * Panel containing the buttons for layout organization.
      */
     JPanel buttonsPanel = new JPanel();
 
     /**
-     * Timer to update colors every millisecond.
+     * Delay in milliseconds between a colour change and the recolour, about one display frame.
+     */
+    static final int FRAME_DELAY = 16;
+
+    /**
+     * One-shot timer that recolours the interface. It is started by the first colour change
+     * and every change that arrives before it fires is handled by that single recolour.
      */
     Timer tick;
 
@@ -77,12 +192,12 @@ public class Interface extends JPanel implements ActionListener {
     public Interface(Font labelFont) {
         new ColourPicker(labelFont);
 
-        tick = new Timer(1, this);
-        tick.start();
+        tick = new Timer(FRAME_DELAY, this);
+        tick.setRepeats(false);
+        ColourPicker.addColourListener(this);
 
-        myTurnLabel = new JButton();
-        myGamePanel = new GamePanel(myTurnLabel);
-        humanGamePanel = new GamePanelHuman(myTurnLabel);
+        myGamePanel = new GamePanel(new Game(), this::update, ai, person);
+        myGamePanel.getEvents().subscribe("metrics", metrics);
 
         reset = new JButton("reset");
         reset.addActionListener(this);
@@ -90,12 +205,22 @@ public class Interface extends JPanel implements ActionListener {
         reset.setBackground(Color.WHITE);
         reset.setPreferredSize(new Dimension(150, 50));
 
-        aiHuman = new JButton("Ai/Human");
+        aiHuman = new JButton(MODE_NAMES[mode]);
         aiHuman.addActionListener(this);
         aiHuman.setFocusPainted(false);
         aiHuman.setBackground(Color.WHITE);
         aiHuman.setPreferredSize(new Dimension(150, 50));
 
+        difficulty = new JButton(DIFFICULTY_NAMES[difficultyIndex]);
+        difficulty.addActionListener(this);
+        difficulty.setFocusPainted(false);
+        difficulty.setBackground(Color.WHITE);
+
+        boardSize = new JButton(BOARD_NAMES[boardIndex]);
+        boardSize.addActionListener(this);
+        boardSize.setFocusPainted(false);
+        boardSize.setBackground(Color.WHITE);
+
         myTurnLabel.setFocusPainted(false);
         myTurnLabel.setBackground(Color.WHITE);
 
@@ -108,8 +233,7 @@ public class Interface extends JPanel implements ActionListener {
         Olifes.setBorderPainted(false);
         Xlifes.setBorderPainted(false);
 
-        Xlifes.setText("X Lifes = " + LifeSystem.getOLifes());
-        Olifes.setText("O Lifes = " + LifeSystem.getXLifes());
+        showLives();
 
         Xlifes.setFont(labelFont);
         Olifes.setFont(labelFont);
@@ -128,23 +252,35 @@ public class Interface extends JPanel implements ActionListener {
         buttonsPanel.add(aiHuman, BorderLayout.WEST);
         buttonsPanel.add(Xlifes, BorderLayout.NORTH);
         buttonsPanel.add(Olifes, BorderLayout.SOUTH);
+        choicesPanel.add(difficulty);
+        choicesPanel.add(boardSize);
+        buttonsPanel.add(choicesPanel, BorderLayout.CENTER);
 
         this.add(buttonsPanel, BorderLayout.EAST);
 
         reset.setFont(labelFont);
         aiHuman.setFont(labelFont);
+        difficulty.setFont(labelFont);
+        boardSize.setFont(labelFont);
+
+        changeColour();
     }
 
     /**
      * Updates the turn label and life counters based on the game state.
-     * 
-     * @param myTurnL the button displaying the current turn (unused in this method)
      */
-    public static void update(JButton myTurnL) {
+    public void update() {
         myTurnLabel.setText("Current Turn: " + myGamePanel.getTurn());
-        myTurnLabel.setText("Current Turn: " + humanGamePanel.getTurn());
-        Xlifes.setText("X Lifes = " + LifeSystem.getOLifes());
-        Olifes.setText("O Lifes = " + LifeSystem.getXLifes());
+        showLives();
+    }
+
+    /**
+     * Shows the life totals of the match being played.
+     */
+    private void showLives() {
+        LifeSystem lives = myGamePanel.getGame().getLives();
+        Xlifes.setText("X Lifes = " + lives.oLives());
+        Olifes.setText("O Lifes = " + lives.xLives());
     }
 
     /**
@@ -152,65 +288,171 @@ public class Interface extends JPanel implements ActionListener {
      * Adjusts the background and text colors for all relevant components.
      */
     public void changeColour() {
-        humanGamePanel.colourChange();
         myGamePanel.colourChange();
 
         ColourPicker.changeColourPickerColour();
 
-        aiHuman.setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
-        reset.setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
-        Xlifes.setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
-        Olifes.setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
-        myTurnLabel.setForeground(new Color(ColourPicker.revertReturnRed(), ColourPicker.revertReturnGreen(), ColourPicker.revertReturnBlue()));
+        Theme theme = ColourPicker.getTheme();
 
-        myTurnLabel.setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
-        Xlifes.setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
-        Olifes.setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
-        aiHuman.setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
-        reset.setBackground(new Color(ColourPicker.returnRed(), ColourPicker.returnGreen(), ColourPicker.returnBlue()));
+        aiHuman.setForeground(theme.getForeground());
+        reset.setForeground(theme.getForeground());
+        difficulty.setForeground(theme.getForeground());
+        boardSize.setForeground(theme.getForeground());
+        Xlifes.setForeground(theme.getForeground());
+        Olifes.setForeground(theme.getForeground());
+        myTurnLabel.setForeground(theme.getForeground());
+
+        myTurnLabel.setBackground(theme.getBackground());
+        Xlifes.setBackground(theme.getBackground());
+        Olifes.setBackground(theme.getBackground());
+        aiHuman.setBackground(theme.getBackground());
+        reset.setBackground(theme.getBackground());
+        difficulty.setBackground(theme.getBackground());
+        boardSize.setBackground(theme.getBackground());
 
-        this.revalidate();
         this.repaint();
     }
 
     /**
-     * Resets the game panels and life counters.
+     * Writes every game played to a journal.
+     * 
+     * @param journal The journal to write to.
+     */
+    public void recordTo(GameJournal journal) {
+        this.journal = journal;
+        recorder = new JournalRecorder(myGamePanel.getGame(), journal);
+        myGamePanel.getEvents().subscribe("journal", recorder);
+    }
+
+    /**
+     * Lets the spectators of a server watch the game.
+     * 
+     * @param spectators The server to publish the game on.
+     * @param id The game's number on the server.
+     */
+    public void watchOn(SpectatorServer spectators, int id) {
+        this.spectators = spectators;
+        spectatorId = id;
+        myGamePanel.getEvents().subscribe("spectators", new SpectatorFeed(spectators, id, myGamePanel.getGame()));
+    }
+
+    /**
+     * Returns the counts of what has happened in the game.
+     * 
+     * @return The game's metrics.
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops everything that follows the game, once each has handled what already happened.
+     * Call it before closing a journal the game is recorded to.
+     */
+    public void close() {
+        myGamePanel.getEvents().close();
+    }
+
+    /**
+     * Resets the game panel and life counters.
      * Closes the death screen if one was active.
      */
     private void reset() {
         myGamePanel.reset();
-        humanGamePanel.reset();
 
-        if (LifeSystem.getXLifes() <= 0 || LifeSystem.getOLifes() <= 0) {
+        LifeSystem lives = myGamePanel.getGame().getLives();
+        if (lives.isOver()) {
             DeathScreen.closeWindow();
-            LifeSystem.resetLifes();
+            lives.reset();
+            showLives();
         }
     }
 
     /**
-     * Toggles between human and AI game panels, updating the display accordingly.
+     * Moves on to the next mode by swapping the controllers of the two sides. The board is
+     * left as it is, and whichever side is to move carries on under its new controller.
      */
     private void aiHumanSwitcher() {
-        if (human) {
-            this.remove(myGamePanel);
-            this.add(humanGamePanel, BorderLayout.CENTER);
-            human = false;
-        } else {
-            this.remove(humanGamePanel);
-            this.add(myGamePanel, BorderLayout.CENTER);
-            myGamePanel.reset();
-            human = true;
+        mode = (mode + 1) % MODE_NAMES.length;
+        myGamePanel.setController('x', (mode == VS_HUMAN) ? person : ai);
+        myGamePanel.setController('o', (mode == AI_VS_AI) ? rival : person);
+        aiHuman.setText(MODE_NAMES[mode]);
+    }
+
+    /**
+     * Moves both AIs on to the next of the {@link #DIFFICULTY_LEVELS}.
+     */
+    private void difficultySwitcher() {
+        difficultyIndex = (difficultyIndex + 1) % DIFFICULTY_LEVELS.length;
+        ai.setLevel(DIFFICULTY_LEVELS[difficultyIndex]);
+        rival.setLevel(DIFFICULTY_LEVELS[difficultyIndex]);
+        difficulty.setText(DIFFICULTY_NAMES[difficultyIndex]);
+    }
+
+    /**
+     * Moves on to the next of the {@link #BOARD_SIZES}. The game on the old board is stopped and
+     * recorded as far as it got, and a new panel with a new game takes its place. The match's
+     * lives carry over, and everything that followed the old game follows the new one.
+     */
+    private void boardSwitcher() {
+        boardIndex = (boardIndex + 1) % BOARD_SIZES.length;
+        int[] size = BOARD_SIZES[boardIndex];
+
+        GamePanel old = myGamePanel;
+        old.controllerFor('x').cancel();
+        old.controllerFor('o').cancel();
+        old.getEvents().close(); // Lets the subscribers catch up before they move over
+        if (recorder != null) {
+            recorder.finish();
         }
 
+        LifeSystem lives = old.getGame().getLives();
+        if (lives.isOver()) {
+            DeathScreen.closeWindow();
+            lives.reset();
+        }
+        Game game = new Game(size[0], size[1], size[2], lives);
+        myGamePanel = new GamePanel(game, this::update, (mode == VS_HUMAN) ? person : ai,
+                (mode == AI_VS_AI) ? rival : person);
+        GameEvents events = myGamePanel.getEvents();
+        events.subscribe("metrics", metrics);
+        if (journal != null) {
+            recorder = new JournalRecorder(game, journal);
+            events.subscribe("journal", recorder);
+        }
+        if (spectators != null) {
+            events.subscribe("spectators", new SpectatorFeed(spectators, spectatorId, game));
+        }
+
+        this.remove(old);
+        this.add(myGamePanel, BorderLayout.CENTER);
+        myGamePanel.colourChange();
         this.revalidate();
         this.repaint();
+        boardSize.setText(BOARD_NAMES[boardIndex]);
+        update();
+        myGamePanel.reset(); // Starts the first turn
+    }
+
+    /**
+     * Called when the chosen colour changes. Schedules a recolour for the next frame unless
+     * one is already waiting, so dragging a slider repaints at most once per frame.
+     * 
+     * @param e the change event from the colour picker
+     */
+    public void stateChanged(ChangeEvent e) {
+        if (!tick.isRunning()) {
+            tick.start();
+        }
     }
 
     /**
      * Handles button actions and timer updates.
      * - Calls {@link #reset()} when the reset button is clicked.
-     * - Toggles game modes when the AI/Human button is clicked.
-     * - Updates colors every millisecond based on the timer.
+     * - Cycles the game modes when the mode button is clicked.
+     * - Cycles the AI's strength when the difficulty button is clicked.
+     * - Starts a game on the next board size when the board button is clicked.
+     * - Updates colors when the recolour timer fires.
      * 
      * @param e the action event triggered by a button or timer
      */
@@ -223,6 +465,14 @@ public class Interface extends JPanel implements ActionListener {
             aiHumanSwitcher();
         }
 
+        if (difficulty == e.getSource()) {
+            difficultySwitcher();
+        }
+
+        if (boardSize == e.getSource()) {
+            boardSwitcher();
+        }
+
         if (tick == e.getSource()) {
             changeColour();
         }
@@ -0,0 +1,150 @@
+import java.io.IOException;
+
+/**
+ * Follows a {@link Game} and writes every game it plays to a {@link GameJournal}. A game is
+ * written as soon as it is won or drawn, or when the board is cleared before it finished.
+ * Moves are told apart from the squares filled in when someone wins because the game is known
+ * to be over by then.
+ * <p>
+ * The recorder keeps its own copy of the board and works only from the changes it is told
+ * about, so it can follow the game directly as a {@link GameListener} or from its own thread as a
+ * {@link GameEvents} subscriber, where it may be some way behind the game.
+ */
+public class JournalRecorder implements GameListener, GameEvents.Handler {
+
+    /**
+     * The life totals of the game, read when it is followed directly.
+     */
+    private final LifeSystem lives;
+
+    /**
+     * Where finished games are written.
+     */
+    private final GameJournal journal;
+
+    /**
+     * The recorder's copy of the board, kept up to date from the changes it is told about.
+     */
+    private final Board board;
+
+    /**
+     * The game being played, reused for every game.
+     */
+    private final GameRecord record = new GameRecord();
+
+    /**
+     * The symbol expected to move next, or '-' before the first move.
+     */
+    private char next = '-';
+
+    /**
+     * Whether the game has ended and is waiting for the board to be cleared.
+     */
+    private boolean over;
+
+    /**
+     * Creates a recorder for a game. It records nothing until it is added to the game as a
+     * listener or subscribed to the game's events, which must happen before the next move.
+     *
+     * @param game The game to record.
+     * @param journal Where to write its games.
+     */
+    public JournalRecorder(Game game, GameJournal journal) {
+        this.lives = game.getLives();
+        this.journal = journal;
+        this.board = game.getBoard().copy();
+    }
+
+    @Override
+    public void squareChanged(int cell, char symbol) {
+        square(cell, symbol, lives.xLives(), lives.oLives());
+    }
+
+    @Override
+    public void turnChanged(char turn) {
+    }
+
+    @Override
+    public void gameOver(String deadMan) {
+    }
+
+    @Override
+    public void onEvent(long event, boolean endOfBatch) {
+        int type = GameEvents.type(event);
+        if (type == GameEvents.SQUARE) {
+            square(GameEvents.value(event), GameEvents.symbol(event), GameEvents.xLives(event),
+                    GameEvents.oLives(event));
+        } else if (type == GameEvents.LAPPED) {
+            // Some moves were missed, so the game cannot be recorded truthfully; skip it and
+            // pick up again when the board is next cleared
+            record.moveCount = 0;
+            over = true;
+        }
+    }
+
+    /**
+     * Follows one change to the board.
+     *
+     * @param cell The square that changed.
+     * @param symbol The symbol now on it.
+     * @param xLives X's life total when it changed.
+     * @param oLives O's life total when it changed.
+     */
+    private void square(int cell, char symbol, int xLives, int oLives) {
+        board.set(cell, symbol);
+        if (symbol == '-') {
+            finish(); // The board is being cleared; keep whatever was played so far
+            next = '-';
+            over = false;
+            return;
+        }
+        if (over) {
+            return; // The winner's symbol filling the board
+        }
+
+        if (symbol != next) {
+            // The first move, or someone moved out of turn, which starts a new record
+            if (record.moveCount > 0) {
+                write();
+            }
+            record.clear(board.width(), board.height(), board.k());
+            record.first = symbol;
+            record.xLives = xLives;
+            record.oLives = oLives;
+        }
+        record.addMove(cell);
+        next = (symbol == 'x') ? 'o' : 'x';
+
+        if (board.wins(cell)) {
+            record.result = (symbol == 'x') ? GameRecord.X_WON : GameRecord.O_WON;
+            over = true;
+            write();
+        } else if (board.isFull()) {
+            record.result = GameRecord.DRAW;
+            over = true;
+            write();
+        }
+    }
+
+    /**
+     * Writes the game being played, if it has started, as unfinished. Called when the game is
+     * about to be thrown away without its board being cleared.
+     */
+    public void finish() {
+        if (record.moveCount > 0 && !over) {
+            write();
+        }
+    }
+
+    /**
+     * Writes the current game to the journal and starts an empty one.
+     */
+    private void write() {
+        try {
+            journal.append(record);
+        } catch (IOException e) {
+            System.out.println("Could not write the game to the journal: " + e.getMessage());
+        }
+        record.moveCount = 0;
+    }
+}
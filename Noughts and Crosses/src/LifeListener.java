@@ -0,0 +1,22 @@
+/**
+ * The {@code LifeListener} interface is implemented by anything that follows the score of a
+ * match kept in a {@link LifeSystem}, such as the life labels in the window or the spectators
+ * of a server session. Listeners are called on the thread that took the life.
+ */
+public interface LifeListener {
+
+    /**
+     * Called after a player loses a life.
+     * 
+     * @param symbol The player who lost it ('x' or 'o').
+     * @param livesLeft How many lives they have left.
+     */
+    void lifeLost(char symbol, int livesLeft);
+
+    /**
+     * Called once when a player's last life is taken.
+     * 
+     * @param symbol The player who has none left ('x' or 'o').
+     */
+    void outOfLives(char symbol);
+}
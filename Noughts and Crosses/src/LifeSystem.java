@@ -1,7 +1,19 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * Manages the life totals for players X and O in the game.
- * Handles reducing lives, checking for a game over condition, 
- * and resetting life totals to the starting value.
+ * Keeps the score of one match: the life totals for players X and O.
+ * Handles reducing lives and resetting life totals to the starting value.
+ * Deciding what happens when a player has died is left to the {@link Game} and to
+ * {@link LifeListener}s, so nothing here touches Swing.
+ * <p>
+ * Every {@link Game} keeps score in its own {@code LifeSystem}, so many matches can run side by
+ * side, for example one per session on the {@link GameServer}. The totals are atomic counters, so
+ * they can be read from any thread without a lock. Totals over every match in the program, for
+ * leaderboards, are kept in striped counters that matches add to without contending with each
+ * other.
  */
 public class LifeSystem {
     
@@ -10,62 +22,130 @@ public class LifeSystem {
      */
     static int start = 5;
     
+    /**
+     * Lives lost by player X in every match.
+     */
+    private static final LongAdder X_LIVES_LOST = new LongAdder();
+    
+    /**
+     * Lives lost by player O in every match.
+     */
+    private static final LongAdder O_LIVES_LOST = new LongAdder();
+    
+    /**
+     * Times player X ran out of lives in every match.
+     */
+    private static final LongAdder X_DEATHS = new LongAdder();
+    
+    /**
+     * Times player O ran out of lives in every match.
+     */
+    private static final LongAdder O_DEATHS = new LongAdder();
+    
     /**
      * Current life total for player X.
      */
-    static int XLife = start;
+    private final AtomicInteger xLife = new AtomicInteger(start);
     
     /**
      * Current life total for player O.
      */
-    static int OLife = start;
+    private final AtomicInteger oLife = new AtomicInteger(start);
+    
+    /**
+     * Listeners told about every life lost.
+     */
+    private final List<LifeListener> listeners = new CopyOnWriteArrayList<LifeListener>();
     
     /**
-     * Checks the life total of a player (X or O), reduces it by 1, and triggers the death screen if their life total reaches 0.
+     * Registers a listener to be told when a life is lost.
      * 
-     * @param XandOlife the character representing the player ('x' for player X or 'o' for player O)
+     * @param listener the listener to add
      */
-    public static void CheckLife(char XandOlife) {
-        if ('x' == XandOlife) {
-            XLife -= 1;
-        }
-        
-        if ('o' == XandOlife) {
-            OLife -= 1;
+    public void addLifeListener(LifeListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Reduces a player's life total by 1 and tells the listeners. If that was the player's last
+     * life they are also told the player is out of lives; this happens once, to whoever took it.
+     * 
+     * @param symbol the player ('x' for player X or 'o' for player O)
+     * @return the player's life total afterwards
+     */
+    public int loseLife(char symbol) {
+        boolean x = (symbol == 'x');
+        if (!x && symbol != 'o') {
+            throw new IllegalArgumentException("No player " + symbol);
         }
         
-        if (XLife <= 0) {
-            DeathScreen.CreateDeathScreen("O");
+        int left = (x ? xLife : oLife).decrementAndGet();
+        (x ? X_LIVES_LOST : O_LIVES_LOST).increment();
+        for (int l = 0; l < listeners.size(); l++) {
+            listeners.get(l).lifeLost(symbol, left);
         }
         
-        if (OLife <= 0) {
-            DeathScreen.CreateDeathScreen("X");
+        if (left == 0) {
+            (x ? X_DEATHS : O_DEATHS).increment();
+            for (int l = 0; l < listeners.size(); l++) {
+                listeners.get(l).outOfLives(symbol);
+            }
         }
+        return left;
+    }
+    
+    /**
+     * Returns this life system's total for player X.
+     * 
+     * @return the life total of player X
+     */
+    public int xLives() {
+        return xLife.get();
     }
     
     /**
-     * Returns the current life total for player O.
+     * Returns this life system's total for player O.
      * 
      * @return the life total of player O
      */
-    public static int getOLifes() {
-        return OLife;
+    public int oLives() {
+        return oLife.get();
     }
     
     /**
-     * Returns the current life total for player X.
+     * Checks whether either player has run out of lives.
      * 
-     * @return the life total of player X
+     * @return true if the match is over
      */
-    public static int getXLifes() {
-        return XLife;
+    public boolean isOver() {
+        return xLife.get() <= 0 || oLife.get() <= 0;
     }
     
     /**
-     * Resets the life totals for both players (X and O) to the starting value.
+     * Resets this life system's totals for both players to the starting value.
+     */
+    public void reset() {
+        xLife.set(start);
+        oLife.set(start);
+    }
+    
+    /**
+     * Returns how many lives a player has lost in every match so far.
+     * 
+     * @param symbol the player ('x' or 'o')
+     * @return the total over every match
+     */
+    public static long totalLivesLost(char symbol) {
+        return (symbol == 'x') ? X_LIVES_LOST.sum() : O_LIVES_LOST.sum();
+    }
+    
+    /**
+     * Returns how many times a player has run out of lives in every match so far.
+     * 
+     * @param symbol the player ('x' or 'o')
+     * @return the total over every match
      */
-    public static void resetLifes() {
-        XLife = start;
-        OLife = start;
+    public static long totalDeaths(char symbol) {
+        return (symbol == 'x') ? X_DEATHS.sum() : O_DEATHS.sum();
     }
 }
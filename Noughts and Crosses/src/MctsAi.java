@@ -0,0 +1,480 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The {@code MctsAi} class picks moves with Monte Carlo Tree Search, which works on boards far
+ * too big to search exhaustively. Moves are chosen down the tree with UCT, and positions are
+ * scored by playing random games to the end on a scratch board that is reused, so rollouts
+ * allocate nothing. Several workers each grow their own tree from the same position until the
+ * time budget runs out, and their visit counts are added up to choose the move. Each worker keeps
+ * its tree between moves and carries on from the branch that was actually played.
+ */
+public class MctsAi implements Strategy {
+
+    /**
+     * Exploration constant for UCT; higher values try less promising moves more often.
+     */
+    static final double EXPLORATION = 1.4;
+
+    /**
+     * Most nodes one worker's tree may hold. Once it is full the worker keeps running rollouts
+     * from the leaves but stops growing the tree.
+     */
+    static final int MAX_NODES = 400_000;
+
+    /**
+     * Threads the workers search on, shared by every instance and one per core.
+     */
+    private static final ExecutorService SEARCH_THREADS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "mcts-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * A position in a worker's search tree, reached by one move from its parent.
+     */
+    static class Node {
+
+        /**
+         * The square played to reach this node, or -1 for a fresh root.
+         */
+        final int move;
+
+        /**
+         * The player who played {@link #move}.
+         */
+        final char player;
+
+        /**
+         * Whether the game is over after {@link #move}.
+         */
+        boolean terminal;
+
+        /**
+         * Whether {@link #player} won with {@link #move}.
+         */
+        boolean won;
+
+        /**
+         * The positions one move on, or {@code null} until the node is expanded.
+         */
+        Node[] children;
+
+        /**
+         * How many rollouts have passed through this node.
+         */
+        int visits;
+
+        /**
+         * Total reward of those rollouts for {@link #player}: 1 for a win, 0.5 for a draw.
+         */
+        double reward;
+
+        /**
+         * Creates a node.
+         *
+         * @param move The square played to reach the node.
+         * @param player The player who played it.
+         */
+        Node(int move, char player) {
+            this.move = move;
+            this.player = player;
+        }
+    }
+
+    /**
+     * One worker's tree and the scratch state it searches with. A worker is only used by one
+     * search thread at a time.
+     */
+    static class Worker {
+
+        /**
+         * The root of the worker's tree, or {@code null} before its first search.
+         */
+        Node root;
+
+        /**
+         * The board the tree's root stands for.
+         */
+        Board rootBoard;
+
+        /**
+         * Scratch board the worker plays each iteration on.
+         */
+        Board scratch;
+
+        /**
+         * Number of nodes in the worker's tree.
+         */
+        int nodes;
+
+        /**
+         * The nodes visited by the current iteration, from the root down, reused every iteration.
+         */
+        Node[] path;
+
+        /**
+         * The worker's own random number generator.
+         */
+        final SplittableRandom random;
+
+        /**
+         * Creates a worker.
+         *
+         * @param seed Seed for the worker's random number generator.
+         */
+        Worker(long seed) {
+            random = new SplittableRandom(seed);
+        }
+    }
+
+    /**
+     * The workers, one tree each.
+     */
+    private final Worker[] workers;
+
+    /**
+     * How long each move may take, in milliseconds.
+     */
+    private long budgetMillis;
+
+    /**
+     * Creates an AI with one worker per core and a 100 ms budget per move.
+     */
+    public MctsAi() {
+        this(Runtime.getRuntime().availableProcessors(), 100);
+    }
+
+    /**
+     * Creates an AI.
+     *
+     * @param workerCount How many trees to grow in parallel.
+     * @param budgetMillis How long each move may take, in milliseconds.
+     */
+    public MctsAi(int workerCount, long budgetMillis) {
+        SplittableRandom seeds = new SplittableRandom();
+        workers = new Worker[Math.max(1, workerCount)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(seeds.nextLong());
+        }
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Sets how long each move may take.
+     *
+     * @param millis The budget per move in milliseconds.
+     */
+    public void setBudget(long millis) {
+        budgetMillis = millis;
+    }
+
+    /**
+     * Searches until the time budget runs out and returns the most visited move.
+     *
+     * @param board The current state of the game board.
+     * @param symbol The symbol the AI is playing ('x' or 'o').
+     * @return The square to play, or -1 if the board is full or the search was interrupted.
+     */
+    public int bestMove(final BoardView board, final char symbol) {
+        if (board.freeCount() == 0) {
+            return -1;
+        }
+
+        final long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        List<Callable<Void>> searches = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < workers.length; i++) {
+            final Worker worker = workers[i];
+            searches.add(() -> {
+                search(worker, board, symbol, deadline);
+                return null;
+            });
+        }
+
+        try {
+            List<Future<Void>> done = SEARCH_THREADS.invokeAll(searches);
+            for (int i = 0; i < done.size(); i++) {
+                done.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            // The cancelled workers may still be writing to their trees, so leave them alone
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            System.out.println("An MCTS worker failed: " + e.getCause());
+        }
+
+        // Add up the visits to each move across every worker's tree
+        long[] visits = new long[board.cells()];
+        for (int i = 0; i < workers.length; i++) {
+            Node root = workers[i].root;
+            if (root == null || root.children == null) {
+                continue;
+            }
+            for (int c = 0; c < root.children.length; c++) {
+                visits[root.children[c].move] += root.children[c].visits;
+            }
+        }
+
+        int best = -1;
+        for (int cell = 0; cell < visits.length; cell++) {
+            if (board.isFree(cell) && (best == -1 || visits[cell] > visits[best])) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int move(BoardView board, char symbol) {
+        return bestMove(board, symbol);
+    }
+
+    /**
+     * Grows one worker's tree from the given position until the deadline, or until the search
+     * is cancelled.
+     *
+     * @param worker The worker to search with.
+     * @param board The position to search from.
+     * @param symbol The player to move.
+     * @param deadline {@link System#nanoTime()} at which to stop.
+     */
+    static void search(Worker worker, BoardView board, char symbol, long deadline) {
+        reuseTree(worker, board, symbol);
+        if (worker.root.children == null) {
+            expand(worker, worker.root, worker.rootBoard);
+        }
+
+        int iterations = 0;
+        while ((iterations++ & 63) != 0
+                || (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted())) {
+            iterate(worker);
+        }
+    }
+
+    /**
+     * Points the worker's tree at the new position. If the position is the old root plus one move
+     * by each player, and both moves are already in the tree, that branch becomes the new root
+     * and the rest of the old tree is dropped; otherwise the worker starts a fresh tree.
+     *
+     * @param worker The worker.
+     * @param board The new position.
+     * @param symbol The player to move.
+     */
+    static void reuseTree(Worker worker, BoardView board, char symbol) {
+        Node root = null;
+        Node old = worker.root;
+        if (old != null && old.children != null && worker.rootBoard.cells() == board.cells()
+                && worker.rootBoard.width() == board.width() && worker.rootBoard.k() == board.k()) {
+            char other = (symbol == 'x') ? 'o' : 'x';
+            int mine = -1;
+            int theirs = -1;
+            int changes = 0;
+            for (int cell = 0; cell < board.cells(); cell++) {
+                char before = worker.rootBoard.get(cell);
+                char after = board.get(cell);
+                if (before == after) {
+                    continue;
+                }
+                changes++;
+                if (before == '-' && after == symbol) {
+                    mine = cell;
+                } else if (before == '-' && after == other) {
+                    theirs = cell;
+                }
+            }
+
+            if (changes == 2 && mine != -1 && theirs != -1) {
+                Node next = child(old, mine);
+                if (next != null && next.children != null) {
+                    root = child(next, theirs);
+                }
+            }
+        }
+
+        if (root == null || root.terminal) {
+            root = new Node(-1, (symbol == 'x') ? 'o' : 'x');
+            worker.nodes = 1;
+        } else {
+            worker.nodes = count(root); // Only the kept branch still counts towards MAX_NODES
+        }
+        worker.root = root;
+        worker.rootBoard = board.copy();
+        if (worker.scratch == null || worker.scratch.cells() != board.cells() || worker.scratch.k() != board.k()
+                || worker.scratch.width() != board.width()) {
+            worker.scratch = board.copy();
+            worker.path = new Node[board.cells() + 1];
+        }
+    }
+
+    /**
+     * Runs one selection, expansion, rollout and backpropagation pass.
+     *
+     * @param worker The worker whose tree is grown.
+     */
+    static void iterate(Worker worker) {
+        Board scratch = worker.scratch;
+        scratch.copyFrom(worker.rootBoard);
+
+        Node[] path = worker.path;
+        int depth = 0;
+
+        // Select down the tree with UCT
+        Node node = worker.root;
+        path[depth++] = node;
+        while (node.children != null && !node.terminal && node.children.length > 0) {
+            node = select(node, worker.random);
+            scratch.set(node.move, node.player);
+            path[depth++] = node;
+        }
+
+        // Expand a leaf that has been visited before
+        if (!node.terminal && node.visits > 0 && worker.nodes < MAX_NODES) {
+            expand(worker, node, scratch);
+            if (node.children.length > 0) {
+                node = node.children[worker.random.nextInt(node.children.length)];
+                scratch.set(node.move, node.player);
+                path[depth++] = node;
+            }
+        }
+
+        // Play the rest of the game out at random
+        char winner;
+        if (node.terminal) {
+            winner = node.won ? node.player : '-';
+        } else {
+            winner = rollout(scratch, (node.player == 'x') ? 'o' : 'x', worker.random);
+        }
+
+        // Back the result up to the root
+        for (int i = depth - 1; i >= 0; i--) {
+            Node n = path[i];
+            n.visits++;
+            if (winner == n.player) {
+                n.reward += 1.0;
+            } else if (winner == '-') {
+                n.reward += 0.5;
+            }
+            path[i] = null;
+        }
+    }
+
+    /**
+     * Picks the child with the best UCT score, trying every child once before any twice.
+     *
+     * @param node The node to choose from.
+     * @param random The worker's random number generator.
+     * @return The chosen child.
+     */
+    static Node select(Node node, SplittableRandom random) {
+        Node[] children = node.children;
+        int start = random.nextInt(children.length);
+        for (int i = 0; i < children.length; i++) {
+            Node child = children[(start + i) % children.length];
+            if (child.visits == 0) {
+                return child;
+            }
+        }
+
+        double logVisits = Math.log(node.visits);
+        Node best = children[0];
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.length; i++) {
+            Node child = children[i];
+            double score = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds a child for every free square, noting which of them end the game.
+     *
+     * @param worker The worker whose tree is grown.
+     * @param node The node to expand.
+     * @param board The position at the node.
+     */
+    static void expand(Worker worker, Node node, Board board) {
+        char player = (node.player == 'x') ? 'o' : 'x';
+        Node[] children = new Node[board.freeCount()];
+        for (int i = 0; i < children.length; i++) {
+            int cell = board.nthFree(i);
+            Node child = new Node(cell, player);
+            board.set(cell, player);
+            child.won = board.wins(cell);
+            child.terminal = child.won || board.isFull();
+            board.set(cell, '-');
+            children[i] = child;
+        }
+        node.children = children;
+        worker.nodes += children.length;
+    }
+
+    /**
+     * Plays random moves until someone wins or the board is full.
+     *
+     * @param board The position to play from, which is changed.
+     * @param turn The player to move.
+     * @param random The worker's random number generator.
+     * @return The winner's symbol, or '-' for a draw.
+     */
+    static char rollout(Board board, char turn, SplittableRandom random) {
+        int free = board.freeCount();
+        while (free > 0) {
+            int cell = board.nthFree(random.nextInt(free));
+            board.set(cell, turn);
+            if (board.wins(cell)) {
+                return turn;
+            }
+            turn = (turn == 'x') ? 'o' : 'x';
+            free--;
+        }
+        return '-';
+    }
+
+    /**
+     * Counts the nodes in a tree.
+     *
+     * @param node The root of the tree.
+     * @return The number of nodes, the root included.
+     */
+    static int count(Node node) {
+        int nodes = 1;
+        if (node.children != null) {
+            for (int i = 0; i < node.children.length; i++) {
+                nodes += count(node.children[i]);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the child reached by a move.
+     *
+     * @param node The parent node.
+     * @param move The square played.
+     * @return The child, or {@code null} if the node has not been expanded.
+     */
+    static Node child(Node node, int move) {
+        if (node.children == null) {
+            return null;
+        }
+        for (int i = 0; i < node.children.length; i++) {
+            if (node.children[i].move == move) {
+                return node.children[i];
+            }
+        }
+        return null;
+    }
+}
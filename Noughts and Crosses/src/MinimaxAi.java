@@ -0,0 +1,179 @@
+/**
+ * The {@code MinimaxAi} class plays perfect Noughts and Crosses by searching the whole game
+ * tree. It uses negamax with alpha-beta pruning, tries the most promising squares first
+ * (the square that won last time, then the centre, corners and edges) and remembers every
+ * position it has searched in a transposition table shared by all instances. Positions are
+ * stored in their {@link Symmetry} canonical form, so rotations and reflections of a position
+ * share one entry.
+ */
+public class MinimaxAi {
+
+    /**
+     * Order in which squares are tried: centre, corners, then edges.
+     */
+    private static final int[] ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+
+    /**
+     * Table entry flag for an exact score.
+     */
+    private static final int EXACT = 0;
+
+    /**
+     * Table entry flag for a score that is at least the stored value.
+     */
+    private static final int LOWER = 1;
+
+    /**
+     * Table entry flag for a score that is at most the stored value.
+     */
+    private static final int UPPER = 2;
+
+    /**
+     * Log2 of the number of slots in the transposition table. There are fewer than a thousand
+     * canonical positions with a move to search, so 4096 slots keep collisions rare.
+     */
+    private static final int TABLE_BITS = 12;
+
+    /**
+     * Transposition table of canonical positions, indexed by a hash of the canonical
+     * {@code mover | opponent << 9} key. Each entry packs a used bit, the bound flag, the score,
+     * the best square on the canonical board and the key itself into one {@code int}, so entries
+     * written by different threads can never be torn. Zero means the slot is empty.
+     */
+    private static final int[] table = new int[1 << TABLE_BITS];
+
+    /**
+     * Picks the best square for a player. Wins are taken as soon as possible, losses are put
+     * off as long as possible, and the AI never loses a game it could have drawn.
+     * 
+     * @param board The current state of the game board.
+     * @param symbol The symbol the AI is playing ('x' or 'o').
+     * @return The square (0 to 8) to play, or -1 if the board is full.
+     */
+    public int bestMove(Bitboard board, char symbol) {
+        int me = board.mask(symbol);
+        int opp = board.mask(symbol == 'x' ? 'o' : 'x');
+        int free = board.free();
+
+        if (free == 0) {
+            return -1;
+        }
+
+        int best = -1;
+        int bestScore = -100;
+        int alpha = -100;
+        for (int i = 0; i < ORDER.length; i++) {
+            int bit = 1 << ORDER[i];
+            if ((free & bit) == 0) {
+                continue;
+            }
+
+            int score;
+            if (Bitboard.isWin(me | bit)) {
+                score = Integer.bitCount(free);
+            } else {
+                score = -negamax(opp, me | bit, -100, -alpha);
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                best = ORDER[i];
+                alpha = Math.max(alpha, score);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores a position from the point of view of the player about to move. A win scores one
+     * point more than the number of squares left after it, so quicker wins score higher; a
+     * draw scores zero.
+     * 
+     * @param me Squares owned by the player to move.
+     * @param opp Squares owned by the other player.
+     * @param alpha The score the player to move is already guaranteed.
+     * @param beta The score the other player is already guaranteed, negated.
+     * @return The score of the position for the player to move.
+     */
+    private static int negamax(int me, int opp, int alpha, int beta) {
+        int free = Bitboard.FULL & ~(me | opp);
+        if (free == 0) {
+            return 0;
+        }
+
+        int t = Symmetry.canonical(me, opp);
+        int key = Symmetry.mask(t, me) | (Symmetry.mask(t, opp) << 9);
+        int slot = (key * 0x9E3779B1) >>> (32 - TABLE_BITS);
+        int entry = table[slot];
+        int ttMove = -1;
+        if (entry != 0 && (entry >>> 12) == key) {
+            int flag = (entry >>> 1) & 3;
+            int value = ((entry >>> 3) & 31) - 16;
+            ttMove = Symmetry.inverseCell(t, (entry >>> 8) & 15);
+            if (flag == EXACT) {
+                return value;
+            } else if (flag == LOWER) {
+                alpha = Math.max(alpha, value);
+            } else {
+                beta = Math.min(beta, value);
+            }
+            if (alpha >= beta) {
+                return value;
+            }
+        }
+
+        // Take an immediate win before searching anything else
+        for (int cell = 0; cell < 9; cell++) {
+            int bit = 1 << cell;
+            if ((free & bit) != 0 && Bitboard.isWin(me | bit)) {
+                int value = Integer.bitCount(free);
+                table[slot] = pack(key, EXACT, value, Symmetry.cell(t, cell));
+                return value;
+            }
+        }
+
+        int alphaOrig = alpha;
+        int best = -100;
+        int bestMove = -1;
+        for (int i = -1; i < ORDER.length; i++) {
+            int cell = (i < 0) ? ttMove : ORDER[i];
+            if (cell < 0 || (i >= 0 && cell == ttMove) || (free & (1 << cell)) == 0) {
+                continue;
+            }
+
+            int score = -negamax(opp, me | (1 << cell), -beta, -alpha);
+            if (score > best) {
+                best = score;
+                bestMove = cell;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int flag = EXACT;
+        if (best <= alphaOrig) {
+            flag = UPPER;
+        } else if (best >= beta) {
+            flag = LOWER;
+        }
+        table[slot] = pack(key, flag, best, Symmetry.cell(t, bestMove));
+        return best;
+    }
+
+    /**
+     * Packs a transposition table entry into a single {@code int}.
+     * 
+     * @param key The canonical position key.
+     * @param flag The bound flag ({@code EXACT}, {@code LOWER} or {@code UPPER}).
+     * @param value The score, between -10 and 10.
+     * @param move The best square found on the canonical board (0 to 8).
+     * @return The packed entry, never zero.
+     */
+    private static int pack(int key, int flag, int value, int move) {
+        return 1 | (flag << 1) | ((value + 16) << 3) | (move << 8) | (key << 12);
+    }
+}
@@ -0,0 +1,262 @@
+import java.util.Arrays;
+
+/**
+ * The {@code MnkBoard} class is a {@link Board} of any width and height where K symbols in a row
+ * win, such as 15x15 five-in-a-row. Each player's squares are kept as a bitset of {@code long}
+ * words, and a move is checked for a win by walking at most K - 1 squares each way along the
+ * four lines through it, so the cost of a win check does not grow with the board.
+ */
+public class MnkBoard implements Board {
+
+    /**
+     * The four directions a line can run in, as row and column steps: across, down and the two diagonals.
+     */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /**
+     * The number of columns.
+     */
+    private final int width;
+
+    /**
+     * The number of rows.
+     */
+    private final int height;
+
+    /**
+     * How many symbols in a row are needed to win.
+     */
+    private final int k;
+
+    /**
+     * Squares owned by player X, one bit per square.
+     */
+    private final long[] xs;
+
+    /**
+     * Squares owned by player O, one bit per square.
+     */
+    private final long[] os;
+
+    /**
+     * How many squares have been played.
+     */
+    private int filled;
+
+    /**
+     * Creates an empty board.
+     * 
+     * @param width The number of columns.
+     * @param height The number of rows.
+     * @param k How many symbols in a row are needed to win.
+     */
+    public MnkBoard(int width, int height, int k) {
+        if (width < 1 || height < 1 || k < 1 || (k > width && k > height)) {
+            throw new IllegalArgumentException("A " + width + "x" + height + " board cannot fit " + k + " in a row");
+        }
+        if ((long) width * height > Integer.MAX_VALUE - 63) {
+            throw new IllegalArgumentException("A " + width + "x" + height + " board has too many squares");
+        }
+        this.width = width;
+        this.height = height;
+        this.k = k;
+        this.xs = new long[(width * height + 63) >>> 6];
+        this.os = new long[xs.length];
+    }
+
+    /**
+     * Creates a copy of another board.
+     * 
+     * @param other The board to copy.
+     */
+    public MnkBoard(MnkBoard other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.k = other.k;
+        this.xs = other.xs.clone();
+        this.os = other.os.clone();
+        this.filled = other.filled;
+    }
+
+    @Override
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public int k() {
+        return k;
+    }
+
+    @Override
+    public int cells() {
+        return width * height;
+    }
+
+    @Override
+    public char get(int cell) {
+        if (has(xs, cell)) {
+            return 'x';
+        }
+        if (has(os, cell)) {
+            return 'o';
+        }
+        return '-';
+    }
+
+    @Override
+    public boolean isFree(int cell) {
+        return !has(xs, cell) && !has(os, cell);
+    }
+
+    @Override
+    public boolean isFull() {
+        return filled == width * height;
+    }
+
+    @Override
+    public int freeCount() {
+        return width * height - filled;
+    }
+
+    @Override
+    public int nthFree(int n) {
+        int cells = width * height;
+        for (int word = 0; word < xs.length; word++) {
+            long free = ~(xs[word] | os[word]);
+            if (word == xs.length - 1 && (cells & 63) != 0) {
+                free &= (1L << (cells & 63)) - 1; // Ignore the bits past the last square
+            }
+
+            int count = Long.bitCount(free);
+            if (n >= count) {
+                n -= count;
+                continue;
+            }
+
+            // Find the right byte, then look the bit up within it
+            for (int shift = 0; shift < 64; shift += 8) {
+                int bits = (int) (free >>> shift) & 0xFF;
+                int inByte = Integer.bitCount(bits);
+                if (n < inByte) {
+                    return (word << 6) + shift + Bitboard.select(bits, n);
+                }
+                n -= inByte;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void set(int cell, char symbol) {
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        if (!isFree(cell)) {
+            filled--;
+        }
+        xs[word] &= ~bit;
+        os[word] &= ~bit;
+        if (symbol == 'x') {
+            xs[word] |= bit;
+            filled++;
+        } else if (symbol == 'o') {
+            os[word] |= bit;
+            filled++;
+        }
+    }
+
+    @Override
+    public boolean wins(int cell) {
+        long[] mine;
+        if (has(xs, cell)) {
+            mine = xs;
+        } else if (has(os, cell)) {
+            mine = os;
+        } else {
+            return false;
+        }
+
+        int row = cell / width;
+        int col = cell % width;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int dr = DIRECTIONS[d][0];
+            int dc = DIRECTIONS[d][1];
+            int run = 1 + count(mine, row, col, dr, dc) + count(mine, row, col, -dr, -dc);
+            if (run >= k) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void fill(char symbol) {
+        clear();
+        for (int cell = 0; cell < width * height; cell++) {
+            set(cell, symbol);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(xs, 0L);
+        Arrays.fill(os, 0L);
+        filled = 0;
+    }
+
+    @Override
+    public Board copy() {
+        return new MnkBoard(this);
+    }
+
+    @Override
+    public void copyFrom(Board other) {
+        MnkBoard board = (MnkBoard) other;
+        if (board.width != width || board.height != height || board.k != k) {
+            throw new IllegalArgumentException("Cannot copy a " + board.width + "x" + board.height + " board onto a "
+                    + width + "x" + height + " board");
+        }
+        System.arraycopy(board.xs, 0, xs, 0, xs.length);
+        System.arraycopy(board.os, 0, os, 0, os.length);
+        filled = board.filled;
+    }
+
+    /**
+     * Counts how many squares in a row a player owns starting next to a square and walking in
+     * one direction, stopping after K - 1 squares since a longer run cannot matter.
+     * 
+     * @param mine The player's bitset.
+     * @param row The starting row.
+     * @param col The starting column.
+     * @param dr The row step.
+     * @param dc The column step.
+     * @return The length of the run, not counting the starting square.
+     */
+    private int count(long[] mine, int row, int col, int dr, int dc) {
+        int n = 0;
+        int r = row + dr;
+        int c = col + dc;
+        while (n < k - 1 && r >= 0 && r < height && c >= 0 && c < width && has(mine, r * width + c)) {
+            n++;
+            r += dr;
+            c += dc;
+        }
+        return n;
+    }
+
+    /**
+     * Checks whether a square's bit is set in a bitset.
+     * 
+     * @param bits The bitset.
+     * @param cell The square index.
+     * @return true if the bit is set.
+     */
+    private static boolean has(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+}
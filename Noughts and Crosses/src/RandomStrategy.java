@@ -0,0 +1,51 @@
+import java.util.Random;
+
+/**
+ * The {@code RandomStrategy} class plays a uniformly random free square, on a board of any size,
+ * with a single random draw. It is the baseline the other strategies are measured against.
+ */
+public class RandomStrategy implements Strategy {
+
+    /**
+     * Where the random squares come from.
+     */
+    private final Random rand;
+
+    /**
+     * Creates a strategy with its own random numbers.
+     */
+    public RandomStrategy() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a strategy that draws from the given random numbers, for example a seeded generator
+     * to replay the same games.
+     * 
+     * @param rand Where the random squares come from.
+     */
+    public RandomStrategy(Random rand) {
+        this.rand = rand;
+    }
+
+    @Override
+    public int move(BoardView board, char symbol) {
+        return randomMove(board, rand);
+    }
+
+    /**
+     * Picks a random free square with a single random draw, so it always succeeds as long as any
+     * square is free.
+     * 
+     * @param board The current state of the game board.
+     * @param rand Where the random square comes from.
+     * @return A free square, or -1 if the board is full.
+     */
+    static int randomMove(BoardView board, Random rand) {
+        int free = board.freeCount();
+        if (free == 0) {
+            return -1;
+        }
+        return board.nthFree(rand.nextInt(free));
+    }
+}
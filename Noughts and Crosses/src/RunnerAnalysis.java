@@ -0,0 +1,295 @@
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replays the games in one or more {@link GameJournal} files and checks every move against the
+ * perfect play in the {@link Tablebase}. A move is a blunder when it makes the result worse for
+ * the player who made it: a won position that is now only drawn or lost, or a drawn position
+ * that is now lost.
+ * <pre>
+ * java RunnerAnalysis journal [journal...]
+ * </pre>
+ * Each file is streamed front to back on its own fork-join worker, replaying moves on a single
+ * {@link Bitboard} and decoding into a single {@link GameRecord}, so memory stays the same no
+ * matter how many games a file holds. Only classic 3x3 games can be checked; games on other
+ * boards are counted and skipped. A file that cannot be read, or that holds a corrupt record, is
+ * reported and left out from that point on; the other files are still analysed.
+ */
+public class RunnerAnalysis {
+
+    /**
+     * Blunder kind for a won position thrown away.
+     */
+    static final int LOST_WIN = 0;
+
+    /**
+     * Blunder kind for a drawn position thrown away.
+     */
+    static final int LOST_DRAW = 1;
+
+    /**
+     * What was found in some games. Every task fills its own and they are added together when
+     * tasks join.
+     */
+    static class Report {
+
+        /**
+         * Number of files read.
+         */
+        long files;
+
+        /**
+         * Number of files that could not be read to the end.
+         */
+        long unreadable;
+
+        /**
+         * Number of games read, including skipped ones.
+         */
+        long games;
+
+        /**
+         * Number of games skipped because they are not on the classic board.
+         */
+        long skipped;
+
+        /**
+         * Number of moves checked.
+         */
+        long moves;
+
+        /**
+         * Number of moves from positions the tablebase cannot rate, for example ones reached by
+         * playing out of turn.
+         */
+        long unrated;
+
+        /**
+         * Games by result, indexed by the {@link GameRecord} result constants.
+         */
+        final long[] results = new long[4];
+
+        /**
+         * Blunders by player and kind: {@code blunders[(symbol == 'x' ? 0 : 1) * 2 + kind]}.
+         */
+        final long[] blunders = new long[4];
+
+        /**
+         * Blunders by the number of the move they were made on, counting from 0.
+         */
+        final long[] blundersByMove = new long[9];
+
+        /**
+         * Adds another report's counts to this one.
+         *
+         * @param other The report to add.
+         * @return This report.
+         */
+        Report add(Report other) {
+            files += other.files;
+            unreadable += other.unreadable;
+            games += other.games;
+            skipped += other.skipped;
+            moves += other.moves;
+            unrated += other.unrated;
+            for (int i = 0; i < results.length; i++) {
+                results[i] += other.results[i];
+            }
+            for (int i = 0; i < blunders.length; i++) {
+                blunders[i] += other.blunders[i];
+            }
+            for (int i = 0; i < blundersByMove.length; i++) {
+                blundersByMove[i] += other.blundersByMove[i];
+            }
+            return this;
+        }
+
+        /**
+         * Returns the total number of blunders.
+         *
+         * @return The blunder count.
+         */
+        long totalBlunders() {
+            long total = 0;
+            for (int i = 0; i < blunders.length; i++) {
+                total += blunders[i];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Analyses a range of files, splitting until each task has one file.
+     */
+    static class Files extends RecursiveTask<Report> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * All the files being analysed.
+         */
+        final Path[] paths;
+
+        /**
+         * The first file of this task.
+         */
+        final int from;
+
+        /**
+         * One past the last file of this task.
+         */
+        final int to;
+
+        /**
+         * Creates a task for some files.
+         *
+         * @param paths All the files being analysed.
+         * @param from The first file of this task.
+         * @param to One past the last file of this task.
+         */
+        Files(Path[] paths, int from, int to) {
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Report compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Files left = new Files(paths, from, middle);
+                left.fork();
+                Report report = new Files(paths, middle, to).compute();
+                return report.add(left.join());
+            }
+
+            Report report = new Report();
+            try {
+                analyse(paths[from], report);
+            } catch (IOException e) {
+                report.unreadable++;
+                String reason = (e instanceof NoSuchFileException) ? "no such file" : e.getMessage();
+                System.out.println("Skipping the rest of " + paths[from] + ": " + reason);
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Streams every game in a journal and checks each move.
+     *
+     * @param path The journal file.
+     * @param report The report to add the counts to.
+     * @throws IOException If the file cannot be read.
+     */
+    static void analyse(Path path, Report report) throws IOException {
+        GameRecord record = new GameRecord();
+        Bitboard board = new Bitboard();
+        try (GameJournal.Reader in = new GameJournal.Reader(path)) {
+            while (in.next(record)) {
+                report.games++;
+                report.results[record.result]++;
+                if (!record.isClassic()) {
+                    report.skipped++;
+                    continue;
+                }
+                board.clear();
+                analyse(record, board, report);
+            }
+        }
+        report.files++;
+    }
+
+    /**
+     * Replays one classic game and checks each move against the tablebase.
+     *
+     * @param record The game.
+     * @param board An empty board to replay it on.
+     * @param report The report to add the counts to.
+     */
+    static void analyse(GameRecord record, Bitboard board, Report report) {
+        char turn = record.first;
+        for (int i = 0; i < record.moveCount; i++) {
+            int move = record.moves[i];
+            char other = (turn == 'x') ? 'o' : 'x';
+            int before = Tablebase.value(board.mask(turn), board.mask(other));
+            board.set(move, turn);
+            report.moves++;
+
+            if (before == Tablebase.UNREACHABLE) {
+                report.unrated++;
+            } else {
+                int after;
+                if (board.wins(move)) {
+                    after = Tablebase.WIN;
+                } else if (board.isFull()) {
+                    after = Tablebase.DRAW;
+                } else {
+                    // The table rates the position for the opponent, who moves next
+                    int theirs = Tablebase.value(board.mask(other), board.mask(turn));
+                    after = (theirs == Tablebase.WIN) ? Tablebase.LOSS
+                            : (theirs == Tablebase.LOSS) ? Tablebase.WIN : theirs;
+                }
+
+                if (rank(after) < rank(before)) {
+                    int kind = (before == Tablebase.WIN) ? LOST_WIN : LOST_DRAW;
+                    report.blunders[((turn == 'x') ? 0 : 2) + kind]++;
+                    report.blundersByMove[Math.min(i, 8)]++;
+                }
+            }
+
+            if (board.wins(move)) {
+                return;
+            }
+            turn = other;
+        }
+    }
+
+    /**
+     * Orders the tablebase values from worst to best.
+     *
+     * @param value {@link Tablebase#LOSS}, {@link Tablebase#DRAW} or {@link Tablebase#WIN}.
+     * @return 0 for a loss, 1 for a draw and 2 for a win.
+     */
+    static int rank(int value) {
+        return (value == Tablebase.WIN) ? 2 : (value == Tablebase.DRAW) ? 1 : 0;
+    }
+
+    /**
+     * Analyses the journals and prints what was found.
+     *
+     * @param args The journal files.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java RunnerAnalysis journal [journal...]");
+            return;
+        }
+        Path[] paths = new Path[args.length];
+        for (int i = 0; i < args.length; i++) {
+            paths[i] = Paths.get(args[i]);
+        }
+
+        long start = System.nanoTime();
+        Report report = ForkJoinPool.commonPool().invoke(new Files(paths, 0, paths.length));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(report.files + " files read, " + report.unreadable + " unreadable, " + report.games + " games (" + report.skipped
+                + " not on the 3x3 board), " + report.moves + " moves checked, " + report.unrated + " unrated");
+        System.out.printf("%-10s %12s %12s %12s %12s%n", "", "x wins", "draws", "o wins", "unfinished");
+        System.out.printf("%-10s %12d %12d %12d %12d%n", "results", report.results[GameRecord.X_WON],
+                report.results[GameRecord.DRAW], report.results[GameRecord.O_WON], report.results[GameRecord.UNFINISHED]);
+        System.out.printf("%-10s %12s %12s%n", "blunders", "lost win", "lost draw");
+        System.out.printf("%-10s %12d %12d%n", "x", report.blunders[LOST_WIN], report.blunders[LOST_DRAW]);
+        System.out.printf("%-10s %12d %12d%n", "o", report.blunders[2 + LOST_WIN], report.blunders[2 + LOST_DRAW]);
+        for (int i = 0; i < report.blundersByMove.length; i++) {
+            System.out.printf("move %-5d %12d%n", i + 1, report.blundersByMove[i]);
+        }
+        System.out.printf("%.2f s, %.1f million moves per second, %.4f%% blunders%n", seconds,
+                report.moves / seconds / 1e6, 100.0 * report.totalBlunders() / Math.max(1, report.moves));
+    }
+}
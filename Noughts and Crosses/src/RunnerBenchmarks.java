@@ -0,0 +1,285 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Benchmarks for the game's hot paths: move generation, win detection, AI move selection and
+ * whole games. Each benchmark is warmed up first so the JIT has compiled it, then timed over
+ * several rounds, and the best round is reported in nanoseconds per operation, along with the
+ * bytes the timed rounds allocated per operation where the JVM can count them. The bytes are
+ * counted across every thread, so the searches that think on worker threads are included. Results are fed
+ * into a sink that is printed at the end so the JIT cannot throw the work away.
+ * <pre>
+ * java -Djava.awt.headless=true RunnerBenchmarks [filter]
+ * mvn -Pbenchmarks compile exec:exec [-Dfilter=filter]
+ * </pre>
+ * Only benchmarks whose name contains the filter are run.
+ */
+public class RunnerBenchmarks {
+
+    /**
+     * A single benchmarked operation.
+     */
+    interface Operation {
+
+        /**
+         * Runs the operation once.
+         *
+         * @param i The iteration number, useful for varying the input.
+         * @return Any value derived from the work, so it cannot be optimised away.
+         */
+        int run(int i);
+    }
+
+    /**
+     * Number of operations in every timed round.
+     */
+    static final int OPERATIONS = 1_000_000;
+
+    /**
+     * Number of operations in every timed round of the painting benchmarks, which are slower.
+     */
+    static final int PAINTS = 20_000;
+
+    /**
+     * Number of operations in every timed round of the searches that think until a deadline.
+     */
+    static final int SEARCHES = 20;
+
+    /**
+     * Time budget of each of those searches, in milliseconds.
+     */
+    static final long SEARCH_MILLIS = 5;
+
+    /**
+     * Number of untimed rounds run before measuring.
+     */
+    static final int WARMUP_ROUNDS = 5;
+
+    /**
+     * Number of timed rounds.
+     */
+    static final int ROUNDS = 5;
+
+    /**
+     * Collects every result so the work being timed is never dead code.
+     */
+    static int sink;
+
+    /**
+     * Only benchmarks whose name contains this text are run.
+     */
+    static String filter = "";
+
+    /**
+     * Counts the bytes each thread allocates, or {@code null} if this JVM cannot.
+     */
+    static final com.sun.management.ThreadMXBean ALLOCATIONS =
+            (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)
+                    ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args An optional filter on the benchmark names.
+     */
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            filter = args[0];
+        }
+
+        final Bitboard empty = position();
+        final Bitboard middle = position(4, 0, 8, 2);
+        final Bitboard nearFull = position(4, 0, 8, 2, 1, 7, 6);
+        final Bitboard[] positions = {empty, middle, nearFull};
+
+        final MnkBoard large = new MnkBoard(15, 15, 5);
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            int cell = random.nextInt(large.cells());
+            if (large.isFree(cell)) {
+                large.set(cell, (i % 2 == 0) ? 'x' : 'o');
+            }
+        }
+
+        // Move generation
+        measure("moves/bitboard-free-squares", i -> {
+            int free = positions[i % 3].free();
+            int count = 0;
+            while (free != 0) {
+                count += Integer.numberOfTrailingZeros(free);
+                free &= free - 1;
+            }
+            return count;
+        });
+        measure("moves/mnk-15x15-free-squares", i -> {
+            int count = 0;
+            for (int cell = 0; cell < large.cells(); cell++) {
+                if (large.isFree(cell)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        // Win detection
+        measure("win/bitboard-hasWon", i -> positions[i % 3].hasWon((i & 1) == 0 ? 'x' : 'o') ? 1 : 0);
+        measure("win/bitboard-last-move", i -> nearFull.wins(i % 9) ? 1 : 0);
+        measure("win/mnk-15x15-last-move", i -> large.wins(i % large.cells()) ? 1 : 0);
+
+        // AI move selection
+        final Strategy heuristic = new HeuristicStrategy();
+        final Strategy randomPlay = new RandomStrategy();
+        final Ai minimax = new Ai();
+        minimax.setLevel(Ai.MINIMAX);
+        final Ai perfect = new Ai();
+        perfect.setLevel(Ai.PERFECT);
+        String[] names = {"empty", "middle", "near-full"};
+        for (int p = 0; p < positions.length; p++) {
+            final Bitboard board = positions[p];
+            final char symbol = (p == 1) ? 'x' : 'o';
+            measure("ai/heuristic-" + names[p], i -> heuristic.move(board, symbol));
+            measure("ai/minimax-" + names[p], i -> minimax.move(board, symbol));
+            measure("ai/tablebase-" + names[p], i -> perfect.move(board, symbol));
+        }
+        measure("ai/heuristic-mnk-15x15", i -> heuristic.move(large, 'o'));
+        measure("ai/random-mnk-15x15", i -> randomPlay.move(large, 'o'));
+
+        // The searches with a time budget, which build trees and copy the board on every move
+        final Strategy mcts = new MctsAi(Runtime.getRuntime().availableProcessors(), SEARCH_MILLIS);
+        final Strategy deepening = new DeepeningAi(SEARCH_MILLIS);
+        measure("ai/mcts-middle", SEARCHES, i -> mcts.move(middle, 'x'));
+        measure("ai/mcts-mnk-15x15", SEARCHES, i -> mcts.move(large, 'o'));
+        measure("ai/deepening-middle", SEARCHES, i -> deepening.move(middle, 'x'));
+        measure("ai/deepening-mnk-15x15", SEARCHES, i -> deepening.move(large, 'o'));
+
+        // Whole games, AI against AI, with nobody listening
+        measure("game/heuristic-vs-heuristic", i -> playGame(heuristic, heuristic));
+        measure("game/perfect-vs-heuristic", i -> playGame(perfect, heuristic));
+
+        // Painting the board, into an off-screen image so no display is needed
+        final BoardCanvas canvas = new BoardCanvas(nearFull);
+        canvas.setSize(450, 450);
+        final java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(450, 450,
+                java.awt.image.BufferedImage.TYPE_INT_RGB);
+        final java.awt.Graphics2D graphics = image.createGraphics();
+        final java.awt.Rectangle square = new java.awt.Rectangle();
+        measure("swing/canvas-paint-board", PAINTS, i -> {
+            graphics.setClip(0, 0, 450, 450);
+            canvas.paint(graphics);
+            return image.getRGB(i % 450, 225);
+        });
+        measure("swing/canvas-paint-cell", PAINTS, i -> {
+            canvas.bounds(i % 9, square);
+            graphics.setClip(square);
+            canvas.paint(graphics);
+            return image.getRGB(square.x, square.y);
+        });
+
+        System.out.println("(sink " + sink + ")");
+    }
+
+    /**
+     * Plays one whole 3x3 game between two strategies on a bitboard.
+     *
+     * @param first The strategy playing 'x', who moves first.
+     * @param second The strategy playing 'o'.
+     * @return The number of moves played.
+     */
+    static int playGame(Strategy first, Strategy second) {
+        Bitboard board = new Bitboard();
+        char turn = 'x';
+        int moves = 0;
+        while (!board.isFull()) {
+            int move = ((turn == 'x') ? first : second).move(board, turn);
+            if (move == -1) {
+                break;
+            }
+            board.set(move, turn);
+            moves++;
+            if (board.wins(move)) {
+                break;
+            }
+            turn = (turn == 'x') ? 'o' : 'x';
+        }
+        return moves;
+    }
+
+    /**
+     * Builds a 3x3 position by playing moves alternately, 'x' first.
+     *
+     * @param moves The squares played, in order.
+     * @return The position.
+     */
+    static Bitboard position(int... moves) {
+        Bitboard board = new Bitboard();
+        for (int i = 0; i < moves.length; i++) {
+            board.set(moves[i], (i % 2 == 0) ? 'x' : 'o');
+        }
+        return board;
+    }
+
+    /**
+     * Warms up and times one benchmark with the usual number of operations per round.
+     *
+     * @param name The benchmark's name.
+     * @param operation The operation to time.
+     */
+    static void measure(String name, Operation operation) {
+        measure(name, OPERATIONS, operation);
+    }
+
+    /**
+     * Warms up and times one benchmark, then prints the best round.
+     *
+     * @param name The benchmark's name.
+     * @param operations Number of operations in every round, fewer for slow operations.
+     * @param operation The operation to time.
+     */
+    static void measure(String name, int operations, Operation operation) {
+        if (!name.contains(filter)) {
+            return;
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int i = 0; i < operations; i++) {
+                sink += operation.run(i);
+            }
+        }
+
+        long best = Long.MAX_VALUE;
+        long allocated = allocatedBytes();
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                sink += operation.run(i);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        allocated = allocatedBytes() - allocated;
+
+        if (ALLOCATIONS == null) {
+            System.out.printf("%-36s %10.2f ns/op%n", name, (double) best / operations);
+        } else {
+            System.out.printf("%-36s %10.2f ns/op %10.2f B/op%n", name, (double) best / operations,
+                    (double) allocated / ((long) ROUNDS * operations));
+        }
+    }
+
+    /**
+     * Returns how many bytes the live threads have allocated so far.
+     *
+     * @return The byte count, or 0 if this JVM cannot count them.
+     */
+    static long allocatedBytes() {
+        if (ALLOCATIONS == null) {
+            return 0;
+        }
+        long[] allocated = ALLOCATIONS.getThreadAllocatedBytes(ALLOCATIONS.getAllThreadIds());
+        long total = 0;
+        for (int i = 0; i < allocated.length; i++) {
+            total += Math.max(0, allocated[i]); // -1 for a thread that has already ended
+        }
+        return total;
+    }
+}
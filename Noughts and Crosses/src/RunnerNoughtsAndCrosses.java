@@ -3,19 +3,25 @@ import java.awt.Font;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Toolkit;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 import javax.swing.JFrame;
 
 /**
  * Entry point for the Noughts and Crosses game.
  * This class sets up the main panel, custom font, and a ring-shaped custom cursor.
+ * If a file is named on the command line, every game played is written to it as a
+ * {@link GameJournal}; "-" records nothing. If a port follows it, spectators can watch the game
+ * there through a {@link SpectatorServer}. What happened in the game is printed on exit.
  */
 public class RunnerNoughtsAndCrosses {
 
     /**
      * The main method that initializes the game window, font, and cursor.
      * 
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments: an optional journal file or "-", and an optional
+     *            spectator port
      */
     public static void main(String[] args) {
         // Create the font used across the system
@@ -28,6 +34,44 @@ public class RunnerNoughtsAndCrosses {
         window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         window.setSize(600, 500);
         window.setVisible(true);
+
+        // Record the games if a journal was asked for
+        GameJournal opened = null;
+        if (args.length > 0 && !args[0].equals("-")) {
+            try {
+                opened = new GameJournal(Paths.get(args[0]));
+                ox.recordTo(opened);
+            } catch (IOException e) {
+                System.out.println("Could not open the journal: " + e.getMessage());
+            }
+        }
+
+        // On exit, stop the subscribers before closing the journal they write to
+        final GameJournal journal = opened;
+        final GameMetrics metrics = ox.getMetrics();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            ox.close();
+            System.out.println(metrics.summary());
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.out.println("Could not close the journal: " + e.getMessage());
+                }
+            }
+        }));
+
+        // Let spectators watch if a port was given
+        if (args.length > 1) {
+            try {
+                SpectatorServer spectators = new SpectatorServer(Integer.parseInt(args[1]));
+                spectators.start();
+                ox.watchOn(spectators, 0);
+                System.out.println("Spectators can watch game 0 on port " + spectators.getPort());
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("Could not start the spectator server: " + e.getMessage());
+            }
+        }
         
         // Create a custom cursor shaped like a ring
         Toolkit toolkit = Toolkit.getDefaultToolkit();
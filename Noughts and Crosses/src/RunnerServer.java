@@ -0,0 +1,52 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Starts a {@link GameServer} so that games can be played without a window, for example with
+ * {@code nc localhost 4545}, and a {@link SpectatorServer} so they can be watched. If a journal
+ * file is given, every game is written to it.
+ * <pre>
+ * java RunnerServer [port] [spectator port] [journal]
+ * </pre>
+ */
+public class RunnerServer {
+
+    /**
+     * The port used when none is given.
+     */
+    static final int DEFAULT_PORT = 4545;
+
+    /**
+     * The spectator port used when none is given.
+     */
+    static final int DEFAULT_SPECTATOR_PORT = 4546;
+
+    /**
+     * Starts the server and serves until the program is stopped.
+     *
+     * @param args An optional port number, spectator port number and journal file.
+     * @throws IOException If a port cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int spectatorPort = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_SPECTATOR_PORT;
+
+        SpectatorServer spectators = new SpectatorServer(spectatorPort);
+        spectators.start();
+        GameJournal journal = (args.length > 2) ? new GameJournal(Paths.get(args[2])) : null;
+        GameServer server = new GameServer(port, spectators, journal);
+        if (journal != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close(); // Ends the sessions, which write to the journal
+                    journal.close();
+                } catch (IOException e) {
+                    System.out.println("Could not close the server or journal: " + e.getMessage());
+                }
+            }));
+        }
+        System.out.println("Noughts and Crosses server listening on port " + server.getPort()
+                + ", spectators on port " + spectators.getPort());
+        server.serve();
+    }
+}
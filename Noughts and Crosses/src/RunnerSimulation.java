@@ -0,0 +1,300 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays huge numbers of AI against AI games without any window, spread over every core with a
+ * fork-join pool. Each batch of games gets its own {@link Ai} instances, and so its own random
+ * number generators, and counts its results in a private array. Arrays are only added together
+ * when batches join, so the workers never share a counter. If a journal file is given, every
+ * game is also written to it; each batch encodes its games into a buffer of its own and appends
+ * the whole buffer at once, so the workers rarely wait on the journal.
+ * <pre>
+ * java RunnerSimulation [first] [second] [games] [journal]
+ * </pre>
+ * The players are AI level names ({@code heuristic}, {@code minimax}, {@code perfect} or
+ * {@code random}); the first player plays 'x' and always moves first.
+ */
+public class RunnerSimulation {
+
+    /**
+     * Result index for a game the first player won.
+     */
+    static final int FIRST_WINS = 0;
+
+    /**
+     * Result index for a drawn game.
+     */
+    static final int DRAW = 1;
+
+    /**
+     * Result index for a game the second player won.
+     */
+    static final int SECOND_WINS = 2;
+
+    /**
+     * The row the results are counted in when the first player found no square to open with.
+     */
+    static final int NO_OPENING = 9;
+
+    /**
+     * Games played by one batch before it stops splitting.
+     */
+    static final long BATCH_SIZE = 20_000;
+
+    /**
+     * Size of the buffer each batch encodes its games into before appending them to the journal.
+     */
+    static final int JOURNAL_BUFFER = 64 * 1024;
+
+    /**
+     * A range of games played by one fork-join task. The results are kept as three counts per
+     * opening square: {@code results[opening * 3 + result]}, with games that never opened
+     * counted under {@link #NO_OPENING}.
+     */
+    static class Batch extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first player's AI level.
+         */
+        final int first;
+
+        /**
+         * The second player's AI level.
+         */
+        final int second;
+
+        /**
+         * How many games this batch plays.
+         */
+        final long games;
+
+        /**
+         * Where the games are written, or {@code null} if they are not kept.
+         */
+        final GameJournal journal;
+
+        /**
+         * Creates a batch of games.
+         * 
+         * @param first The first player's AI level.
+         * @param second The second player's AI level.
+         * @param games How many games to play.
+         * @param journal Where the games are written, or {@code null} if they are not kept.
+         */
+        Batch(int first, int second, long games, GameJournal journal) {
+            this.first = first;
+            this.second = second;
+            this.games = games;
+            this.journal = journal;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (games > BATCH_SIZE) {
+                Batch left = new Batch(first, second, games / 2, journal);
+                Batch right = new Batch(first, second, games - games / 2, journal);
+                left.fork();
+                long[] results = right.compute();
+                long[] other = left.join();
+                for (int i = 0; i < results.length; i++) {
+                    results[i] += other[i];
+                }
+                return results;
+            }
+
+            Strategy firstAi = strategy(first);
+            Strategy secondAi = strategy(second);
+
+            long[] results = new long[(NO_OPENING + 1) * 3];
+            Bitboard board = new Bitboard();
+            GameRecord record = (journal != null) ? new GameRecord() : null;
+            ByteBuffer pending = (journal != null) ? ByteBuffer.allocate(JOURNAL_BUFFER) : null;
+            for (long g = 0; g < games; g++) {
+                board.clear();
+                playGame(board, firstAi, secondAi, results, record);
+                if (record != null) {
+                    record.encode(pending);
+                    if (pending.remaining() < GameRecord.MAX_CLASSIC_SIZE) {
+                        flush(pending);
+                    }
+                }
+            }
+            if (pending != null) {
+                flush(pending);
+            }
+            return results;
+        }
+
+        /**
+         * Appends the encoded games to the journal and empties the buffer.
+         * 
+         * @param pending The encoded games.
+         */
+        private void flush(ByteBuffer pending) {
+            pending.flip();
+            try {
+                journal.append(pending);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * Plays one game and counts its result against its opening square, or against
+     * {@link #NO_OPENING} if the first player had no move to open with.
+     * 
+     * @param board An empty board to play on.
+     * @param firstAi The strategy playing 'x', who moves first.
+     * @param secondAi The strategy playing 'o'.
+     * @param results The counts to add the result to.
+     * @param record Where the game's moves and result are written, or {@code null}.
+     */
+    static void playGame(Bitboard board, Strategy firstAi, Strategy secondAi, long[] results, GameRecord record) {
+        if (record != null) {
+            record.clear(3, 3, 3);
+            record.first = 'x';
+        }
+        int opening = NO_OPENING;
+        char turn = 'x';
+        while (!board.isFull()) {
+            int move = ((turn == 'x') ? firstAi : secondAi).move(board, turn);
+            if (move == -1) {
+                break;
+            }
+            if (opening == NO_OPENING) {
+                opening = move;
+            }
+
+            board.set(move, turn);
+            if (record != null) {
+                record.addMove(move);
+            }
+            if (board.wins(move)) {
+                results[opening * 3 + ((turn == 'x') ? FIRST_WINS : SECOND_WINS)]++;
+                if (record != null) {
+                    record.result = (turn == 'x') ? GameRecord.X_WON : GameRecord.O_WON;
+                }
+                return;
+            }
+            turn = (turn == 'x') ? 'o' : 'x';
+        }
+        results[opening * 3 + DRAW]++;
+        if (record != null) {
+            record.result = GameRecord.DRAW;
+        }
+    }
+
+    /**
+     * Plays every game on the common fork-join pool.
+     * 
+     * @param first The first player's AI level.
+     * @param second The second player's AI level.
+     * @param games How many games to play.
+     * @return Three counts per opening square: {@code results[opening * 3 + result]}, and three
+     *         for {@link #NO_OPENING}.
+     */
+    public static long[] simulate(int first, int second, long games) {
+        return simulate(first, second, games, null);
+    }
+
+    /**
+     * Plays every game on the common fork-join pool, writing each one to a journal.
+     * 
+     * @param first The first player's AI level.
+     * @param second The second player's AI level.
+     * @param games How many games to play.
+     * @param journal Where the games are written, or {@code null} if they are not kept.
+     * @return Three counts per opening square: {@code results[opening * 3 + result]}, and three
+     *         for {@link #NO_OPENING}.
+     */
+    public static long[] simulate(int first, int second, long games, GameJournal journal) {
+        return ForkJoinPool.commonPool().invoke(new Batch(first, second, games, journal));
+    }
+
+    /**
+     * Runs a simulation and prints the results.
+     * 
+     * @param args The first player's level, the second player's level, the number of games and
+     *             an optional journal file.
+     * @throws IOException If the journal cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int first = level((args.length > 0) ? args[0] : "heuristic");
+        int second = level((args.length > 1) ? args[1] : "random");
+        long games = (args.length > 2) ? Long.parseLong(args[2]) : 10_000_000L;
+        GameJournal journal = (args.length > 3) ? new GameJournal(Paths.get(args[3])) : null;
+
+        long start = System.nanoTime();
+        long[] results = simulate(first, second, games, journal);
+        if (journal != null) {
+            journal.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] totals = new long[3];
+        for (int i = 0; i < results.length; i++) {
+            totals[i % 3] += results[i];
+        }
+
+        System.out.println(Ai.LEVEL_NAMES[first] + " (x) against " + Ai.LEVEL_NAMES[second] + " (o), "
+                + games + " games on " + ForkJoinPool.commonPool().getParallelism() + " workers");
+        System.out.printf("%-10s %12s %12s %12s%n", "opening", "x wins", "draws", "o wins");
+        for (int opening = 0; opening < 9; opening++) {
+            System.out.printf("%-10d %12d %12d %12d%n", opening,
+                    results[opening * 3 + FIRST_WINS], results[opening * 3 + DRAW], results[opening * 3 + SECOND_WINS]);
+        }
+        long unopened = results[NO_OPENING * 3 + FIRST_WINS] + results[NO_OPENING * 3 + DRAW]
+                + results[NO_OPENING * 3 + SECOND_WINS];
+        if (unopened > 0) {
+            System.out.printf("%-10s %12d %12d %12d%n", "none", results[NO_OPENING * 3 + FIRST_WINS],
+                    results[NO_OPENING * 3 + DRAW], results[NO_OPENING * 3 + SECOND_WINS]);
+        }
+        System.out.printf("%-10s %12d %12d %12d%n", "total", totals[FIRST_WINS], totals[DRAW], totals[SECOND_WINS]);
+        System.out.printf("%.2f s, %.1f million games per minute%n", seconds, games / seconds * 60 / 1e6);
+        if (journal != null) {
+            System.out.printf("journal %s, %.2f bytes per game%n", args[3], (double) journal.size() / games);
+        }
+    }
+
+    /**
+     * Looks up an AI level by name.
+     * 
+     * @param name A level name such as {@code heuristic}.
+     * @return The level constant.
+     */
+    static int level(String name) {
+        for (int i = 0; i < Ai.LEVEL_NAMES.length; i++) {
+            if (Ai.LEVEL_NAMES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown AI level " + name);
+    }
+
+    /**
+     * Creates the strategy for an AI level. The heuristic and random levels are played by their
+     * strategies directly, so the games go without the locking an {@link Ai} does on every move.
+     * 
+     * @param level One of the {@link Ai} level constants.
+     * @return A strategy of its own for one thread.
+     */
+    static Strategy strategy(int level) {
+        if (level == Ai.HEURISTIC) {
+            return new HeuristicStrategy();
+        }
+        if (level == Ai.RANDOM) {
+            return new RandomStrategy();
+        }
+        Ai ai = new Ai();
+        ai.setLevel(level);
+        return ai;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * The {@code SpectatorFeed} class sends a game to the spectators of a {@link SpectatorServer}
+ * as a {@link GameEvents} subscriber, so the game never waits for the network.
+ */
+public class SpectatorFeed implements GameEvents.Handler {
+
+    /**
+     * Where the game is published.
+     */
+    private final SpectatorServer spectators;
+
+    /**
+     * The game's number on the spectator server.
+     */
+    private final int id;
+
+    /**
+     * Starts a feed for a game by publishing its board as it is now. Subscribe the feed to the
+     * game's events straight afterwards, on the game's thread, so no change falls in between.
+     *
+     * @param spectators Where the game is published.
+     * @param id The game's number on the spectator server.
+     * @param game The game.
+     */
+    public SpectatorFeed(SpectatorServer spectators, int id, Game game) {
+        this.spectators = spectators;
+        this.id = id;
+        spectators.publishBoard(id, game.getBoard(), game.getLives());
+        Board board = game.getBoard();
+        for (int cell = 0; cell < board.cells(); cell++) {
+            if (!board.isFree(cell)) {
+                spectators.publishSquare(id, cell, board.get(cell), game.getLives());
+            }
+        }
+    }
+
+    @Override
+    public void onEvent(long event, boolean endOfBatch) {
+        int xLives = GameEvents.xLives(event);
+        int oLives = GameEvents.oLives(event);
+        switch (GameEvents.type(event)) {
+            case GameEvents.SQUARE:
+                spectators.publishSquare(id, GameEvents.value(event), GameEvents.symbol(event), xLives, oLives);
+                break;
+            case GameEvents.LIFE:
+                spectators.publishLives(id, xLives, oLives);
+                break;
+            case GameEvents.GAME_OVER:
+                spectators.publishGameOver(id, GameEvents.symbol(event), xLives, oLives);
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,645 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets any number of spectators watch the games on a {@link GameServer}. A spectator connects,
+ * sends {@code WATCH id} with the number of a game, and from then on receives every change to
+ * that game as fixed six-byte records:
+ * <pre>
+ * 'B' width height k xLives oLives     a new board, sent first and after every NEW
+ * 'S' cell(2 bytes) symbol xLives oLives  a square changed
+ * 'L' 0 0 0 xLives oLives               the life totals changed after a game was won
+ * 'G' name 0 0 xLives oLives            a player ran out of lives; name is 'X' or 'O'
+ * </pre>
+ * Boards are at most {@link GameSession#MAX_SIDE} squares wide and tall, so their sizes fit in a
+ * byte and every square index in two.
+ * <p>
+ * All sockets are served by one thread with a {@link Selector}. Games only queue their changes
+ * and never wait on a spectator; the selector is woken only by the first change queued while it
+ * is busy or asleep, not by every one. Each time the selector thread runs it encodes the changes of a
+ * game once, into one read-only buffer, and gives every spectator of that game a
+ * {@link ByteBuffer#duplicate() duplicate} of it, so the bytes are never copied per spectator.
+ * A spectator's queued buffers are sent with a single gathering write.
+ */
+public class SpectatorServer implements Runnable {
+
+    /**
+     * Size of one record in bytes.
+     */
+    static final int RECORD_SIZE = 6;
+
+    /**
+     * Most buffers a spectator may have waiting. A spectator that falls further behind is
+     * disconnected rather than slowing anyone down.
+     */
+    static final int MAX_PENDING = 4096;
+
+    /**
+     * Most buffers sent to one spectator by a single gathering write.
+     */
+    static final int MAX_GATHER = 64;
+
+    /**
+     * A change published by a game, waiting for the selector thread.
+     */
+    static class Change {
+
+        /**
+         * The game that changed.
+         */
+        final int game;
+
+        /**
+         * The encoded record, or {@code null} if the game has ended.
+         */
+        final byte[] record;
+
+        /**
+         * Creates a change.
+         *
+         * @param game The game that changed.
+         * @param record The encoded record, or {@code null} if the game has ended.
+         */
+        Change(int game, byte[] record) {
+            this.game = game;
+            this.record = record;
+        }
+    }
+
+    /**
+     * One game's spectators and enough of its state to bring a new spectator up to date. Only
+     * used on the selector thread.
+     */
+    static class Feed {
+
+        /**
+         * The last board record, or {@code null} before the first.
+         */
+        byte[] board;
+
+        /**
+         * The last record of every square that is not free, by square.
+         */
+        Map<Integer, byte[]> squares = new HashMap<Integer, byte[]>();
+
+        /**
+         * The last life totals record.
+         */
+        byte[] lives;
+
+        /**
+         * Changes not yet sent, encoded back to back.
+         */
+        ByteBuffer batch = ByteBuffer.allocate(RECORD_SIZE * 16);
+
+        /**
+         * The spectators watching the game.
+         */
+        List<Spectator> spectators = new ArrayList<Spectator>();
+    }
+
+    /**
+     * One spectator's connection. Only used on the selector thread.
+     */
+    static class Spectator {
+
+        /**
+         * The connection.
+         */
+        final SocketChannel channel;
+
+        /**
+         * Holds the {@code WATCH} line while it is being read.
+         */
+        final ByteBuffer request = ByteBuffer.allocate(64);
+
+        /**
+         * Buffers waiting to be sent, all shared with the game's other spectators.
+         */
+        final ArrayDeque<ByteBuffer> pending = new ArrayDeque<ByteBuffer>();
+
+        /**
+         * The game being watched, or -1 before {@code WATCH}.
+         */
+        int game = -1;
+
+        /**
+         * Creates a spectator.
+         *
+         * @param channel The connection.
+         */
+        Spectator(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Watches every socket.
+     */
+    private final Selector selector;
+
+    /**
+     * The socket spectators connect to.
+     */
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * Changes published by games and not yet taken by the selector thread.
+     */
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<Change>();
+
+    /**
+     * Whether the selector thread has already been woken for the changes in the queue. It is
+     * cleared just before the queue is drained.
+     */
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    /**
+     * Every game with a feed, by game number. Only used on the selector thread.
+     */
+    private final Map<Integer, Feed> feeds = new HashMap<Integer, Feed>();
+
+    /**
+     * Scratch array for gathering writes.
+     */
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+
+    /**
+     * Opens the server on a port of the local machine. Nothing is served until {@link #start()}.
+     *
+     * @param port The port to listen on, or 0 to pick any free port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public SpectatorServer(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The port number.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Starts serving spectators on a daemon thread of its own.
+     */
+    public void start() {
+        Thread thread = new Thread(this, "spectators");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops serving spectators and closes every connection.
+     *
+     * @throws IOException If the sockets cannot be closed.
+     */
+    public void close() throws IOException {
+        selector.close();
+        serverChannel.close();
+    }
+
+    /**
+     * Publishes a new board.
+     *
+     * @param game The game's number.
+     * @param board The new board.
+     * @param lives The game's life totals.
+     */
+    public void publishBoard(int game, BoardView board, LifeSystem lives) {
+        publishBoard(game, board, lives.xLives(), lives.oLives());
+    }
+
+    /**
+     * Publishes a new board with life totals that were read earlier.
+     *
+     * @param game The game's number.
+     * @param board The new board.
+     * @param xLives X's life total.
+     * @param oLives O's life total.
+     * @throws IllegalArgumentException If the board is too big for the records.
+     */
+    public void publishBoard(int game, BoardView board, int xLives, int oLives) {
+        if (board.width() > GameSession.MAX_SIDE || board.height() > GameSession.MAX_SIDE) {
+            throw new IllegalArgumentException("Spectators can only watch boards up to "
+                    + GameSession.MAX_SIDE + "x" + GameSession.MAX_SIDE);
+        }
+        publish(game, record('B', board.width(), board.height(), board.k(), xLives, oLives));
+    }
+
+    /**
+     * Publishes a change to one square.
+     *
+     * @param game The game's number.
+     * @param cell The square that changed.
+     * @param symbol The symbol now on it.
+     * @param lives The game's life totals.
+     */
+    public void publishSquare(int game, int cell, char symbol, LifeSystem lives) {
+        publishSquare(game, cell, symbol, lives.xLives(), lives.oLives());
+    }
+
+    /**
+     * Publishes a change to one square with life totals that were read earlier.
+     *
+     * @param game The game's number.
+     * @param cell The square that changed.
+     * @param symbol The symbol now on it.
+     * @param xLives X's life total.
+     * @param oLives O's life total.
+     */
+    public void publishSquare(int game, int cell, char symbol, int xLives, int oLives) {
+        publish(game, record('S', cell >>> 8, cell, symbol, xLives, oLives));
+    }
+
+    /**
+     * Publishes new life totals.
+     *
+     * @param game The game's number.
+     * @param lives The game's life totals.
+     */
+    public void publishLives(int game, LifeSystem lives) {
+        publishLives(game, lives.xLives(), lives.oLives());
+    }
+
+    /**
+     * Publishes life totals that were read earlier.
+     *
+     * @param game The game's number.
+     * @param xLives X's life total.
+     * @param oLives O's life total.
+     */
+    public void publishLives(int game, int xLives, int oLives) {
+        publish(game, record('L', 0, 0, 0, xLives, oLives));
+    }
+
+    /**
+     * Publishes that a player has run out of lives.
+     *
+     * @param game The game's number.
+     * @param deadMan The name of the player who has "died".
+     * @param lives The game's life totals.
+     */
+    public void publishGameOver(int game, String deadMan, LifeSystem lives) {
+        publishGameOver(game, deadMan.charAt(0), lives.xLives(), lives.oLives());
+    }
+
+    /**
+     * Publishes that a player has run out of lives, with life totals that were read earlier.
+     *
+     * @param game The game's number.
+     * @param deadMan The first letter of the name of the player who has "died".
+     * @param xLives X's life total.
+     * @param oLives O's life total.
+     */
+    public void publishGameOver(int game, char deadMan, int xLives, int oLives) {
+        publish(game, record('G', deadMan, 0, 0, xLives, oLives));
+    }
+
+    /**
+     * Ends a game's feed. Its spectators stay connected but receive nothing more.
+     *
+     * @param game The game's number.
+     */
+    public void endFeed(int game) {
+        publish(game, null);
+    }
+
+    /**
+     * Encodes one record.
+     *
+     * @param type The record type.
+     * @param a The first byte after the type.
+     * @param b The second byte after the type.
+     * @param c The third byte after the type.
+     * @param xLives X's life total, sent as the fifth byte.
+     * @param oLives O's life total, sent as the last byte.
+     * @return The record.
+     */
+    private static byte[] record(char type, int a, int b, int c, int xLives, int oLives) {
+        return new byte[] {(byte) type, (byte) a, (byte) b, (byte) c,
+            (byte) Math.max(0, Math.min(255, xLives)), (byte) Math.max(0, Math.min(255, oLives))};
+    }
+
+    /**
+     * Queues a change for the selector thread, waking it up unless it already has been.
+     *
+     * @param game The game's number.
+     * @param record The record, or {@code null} to end the feed.
+     */
+    private void publish(int game, byte[] record) {
+        changes.add(new Change(game, record));
+        if (!wakeupPending.getAndSet(true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Serves spectators until the server is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (selector.isOpen()) {
+                selector.select();
+                if (!selector.isOpen()) {
+                    return;
+                }
+                wakeupPending.set(false); // Anything queued from now on wakes the selector again
+                broadcast();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Spectator spectator = (Spectator) key.attachment();
+                        if (key.isReadable()) {
+                            read(key, spectator);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(key, spectator);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("The spectator server stopped: " + e.getMessage());
+        } catch (ClosedSelectorException e) {
+            // close() was called
+        }
+    }
+
+    /**
+     * Takes every queued change, adds it to its game's batch, then hands each batch to the
+     * game's spectators as one shared buffer and writes as much as the sockets will take.
+     */
+    private void broadcast() {
+        List<Feed> touched = new ArrayList<Feed>();
+        Change change;
+        while ((change = changes.poll()) != null) {
+            if (change.record == null) {
+                Feed ended = feeds.remove(change.game);
+                if (ended != null) {
+                    for (int i = 0; i < ended.spectators.size(); i++) {
+                        ended.spectators.get(i).game = -1;
+                    }
+                }
+                continue;
+            }
+
+            Feed feed = feeds.get(change.game);
+            if (feed == null) {
+                feed = new Feed();
+                feeds.put(change.game, feed);
+            }
+            remember(feed, change.record);
+            if (feed.spectators.isEmpty()) {
+                continue; // Nobody to send it to, but new spectators still get the state
+            }
+            if (feed.batch.remaining() < RECORD_SIZE) {
+                ByteBuffer bigger = ByteBuffer.allocate(feed.batch.capacity() * 2);
+                feed.batch.flip();
+                bigger.put(feed.batch);
+                feed.batch = bigger;
+            }
+            if (feed.batch.position() == 0) {
+                touched.add(feed);
+            }
+            feed.batch.put(change.record);
+        }
+
+        for (int f = 0; f < touched.size(); f++) {
+            Feed feed = touched.get(f);
+            feed.batch.flip();
+            ByteBuffer shared = feed.batch.asReadOnlyBuffer();
+            feed.batch = ByteBuffer.allocate(feed.batch.capacity());
+
+            // Backwards, because a spectator that is disconnected removes itself
+            for (int i = feed.spectators.size() - 1; i >= 0; i--) {
+                enqueue(feed.spectators.get(i), shared.duplicate());
+            }
+        }
+    }
+
+    /**
+     * Keeps the latest state of a game so new spectators can be brought up to date.
+     *
+     * @param feed The game's feed.
+     * @param record The record just published.
+     */
+    private static void remember(Feed feed, byte[] record) {
+        switch (record[0]) {
+            case 'B':
+                feed.board = record;
+                feed.squares.clear();
+                feed.lives = null;
+                break;
+            case 'S':
+                int cell = ((record[1] & 0xFF) << 8) | (record[2] & 0xFF);
+                if (record[3] == '-') {
+                    feed.squares.remove(cell);
+                } else {
+                    feed.squares.put(cell, record);
+                }
+                break;
+            default:
+                feed.lives = record;
+                break;
+        }
+    }
+
+    /**
+     * Queues a buffer for a spectator and tries to send it straight away.
+     *
+     * @param spectator The spectator.
+     * @param buffer The buffer, shared with other spectators.
+     * @return false if the spectator has gone or fell too far behind and was disconnected.
+     */
+    private boolean enqueue(Spectator spectator, ByteBuffer buffer) {
+        SelectionKey key = spectator.channel.keyFor(selector);
+        if (key == null || !key.isValid()) {
+            return false;
+        }
+        if (spectator.pending.size() >= MAX_PENDING) {
+            disconnect(key, spectator);
+            return false;
+        }
+        spectator.pending.add(buffer);
+        write(key, spectator);
+        return key.isValid();
+    }
+
+    /**
+     * Accepts a new spectator, who must then send {@code WATCH}.
+     *
+     * @throws IOException If accepting fails.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Spectator(channel));
+    }
+
+    /**
+     * Reads a spectator's {@code WATCH id} line and subscribes them to that game, sending them
+     * its current state first.
+     *
+     * @param key The spectator's key.
+     * @param spectator The spectator.
+     */
+    private void read(SelectionKey key, Spectator spectator) {
+        try {
+            if (spectator.channel.read(spectator.request) < 0) {
+                disconnect(key, spectator);
+                return;
+            }
+        } catch (IOException e) {
+            disconnect(key, spectator);
+            return;
+        }
+
+        ByteBuffer request = spectator.request;
+        int end = -1;
+        for (int i = 0; i < request.position(); i++) {
+            if (request.get(i) == '\n') {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1) {
+            if (!request.hasRemaining()) {
+                disconnect(key, spectator); // Far too long to be a WATCH line
+            }
+            return;
+        }
+
+        String line = new String(request.array(), 0, end, StandardCharsets.US_ASCII).trim();
+        request.clear();
+        int game = -1;
+        if (line.startsWith("WATCH ")) {
+            try {
+                game = Integer.parseInt(line.substring(6).trim());
+            } catch (NumberFormatException e) {
+                game = -1;
+            }
+        }
+        Feed feed = feeds.get(game);
+        if (feed == null) {
+            disconnect(key, spectator);
+            return;
+        }
+
+        // Leave the old game, then catch up with the new one
+        Feed old = feeds.get(spectator.game);
+        if (old != null) {
+            old.spectators.remove(spectator);
+        }
+        spectator.game = game;
+        ByteBuffer state = ByteBuffer.allocate(RECORD_SIZE * (feed.squares.size() + 2));
+        if (feed.board != null) {
+            state.put(feed.board);
+        }
+        for (byte[] square : feed.squares.values()) {
+            state.put(square);
+        }
+        if (feed.lives != null) {
+            state.put(feed.lives);
+        }
+        state.flip();
+        if (enqueue(spectator, state)) {
+            feed.spectators.add(spectator);
+        }
+    }
+
+    /**
+     * Sends as many of a spectator's queued buffers as the socket will take in one gathering
+     * write, and only asks to be told when the socket is writable while something is left.
+     *
+     * @param key The spectator's key.
+     * @param spectator The spectator.
+     */
+    private void write(SelectionKey key, Spectator spectator) {
+        try {
+            while (!spectator.pending.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer buffer : spectator.pending) {
+                    if (count == MAX_GATHER) {
+                        break;
+                    }
+                    gather[count++] = buffer;
+                }
+                long written = spectator.channel.write(gather, 0, count);
+                for (int i = 0; i < count; i++) {
+                    gather[i] = null;
+                }
+                while (!spectator.pending.isEmpty() && !spectator.pending.peek().hasRemaining()) {
+                    spectator.pending.poll();
+                }
+                if (written == 0 || (!spectator.pending.isEmpty() && spectator.pending.peek().position() > 0)) {
+                    break; // The socket is full
+                }
+            }
+        } catch (IOException e) {
+            disconnect(key, spectator);
+            return;
+        }
+
+        int ops = SelectionKey.OP_READ | (spectator.pending.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+
+    /**
+     * Closes a spectator's connection.
+     *
+     * @param key The spectator's key.
+     * @param spectator The spectator.
+     */
+    private void disconnect(SelectionKey key, Spectator spectator) {
+        key.cancel();
+        spectator.pending.clear();
+        Feed feed = feeds.get(spectator.game);
+        if (feed != null) {
+            feed.spectators.remove(spectator);
+        }
+        try {
+            spectator.channel.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * The {@code Strategy} interface is one way of choosing moves. A strategy is given a read-only
+ * {@link BoardView} and answers with a square index, so the same strategy can play in the
+ * window, in a {@link RunnerSimulation} or in a {@link RunnerBenchmarks} run, and two strategies
+ * can play each other on the same board. Strategies on the fast path, such as
+ * {@link HeuristicStrategy} and {@link RandomStrategy}, allocate nothing per move.
+ */
+public interface Strategy {
+
+    /**
+     * Chooses a move. The board must not be changed; a strategy that needs to try moves out
+     * works on its own copy.
+     * 
+     * @param board The current state of the game board.
+     * @param symbol The symbol the strategy is playing ('x' or 'o').
+     * @return The square to play, or -1 if there is no free square.
+     */
+    int move(BoardView board, char symbol);
+}
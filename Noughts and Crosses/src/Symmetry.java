@@ -0,0 +1,115 @@
+/**
+ * The {@code Symmetry} class maps Noughts and Crosses positions onto the eight rotations and
+ * reflections of the board. Every position and its seven mirror images share one canonical
+ * form, so caches and tables only need to store it once. Moves chosen on the canonical form
+ * are mapped back onto the real board with {@link #inverseCell(int, int)}.
+ */
+public class Symmetry {
+
+    /**
+     * Number of symmetries of the square: four rotations, each with or without a reflection.
+     */
+    public static final int COUNT = 8;
+
+    /**
+     * {@code CELLS[t][c]} is the square that square {@code c} moves to under symmetry {@code t}.
+     */
+    private static final int[][] CELLS = new int[COUNT][9];
+
+    /**
+     * {@code INVERSE[t][c]} is the square that moves to square {@code c} under symmetry {@code t}.
+     */
+    private static final int[][] INVERSE = new int[COUNT][9];
+
+    /**
+     * {@code MASKS[t * 512 + m]} is the 9-bit mask {@code m} moved by symmetry {@code t}.
+     */
+    private static final short[] MASKS = new short[COUNT * (Bitboard.FULL + 1)];
+
+    static {
+        for (int t = 0; t < COUNT; t++) {
+            for (int cell = 0; cell < 9; cell++) {
+                int row = cell / 3;
+                int col = cell % 3;
+
+                // Reflect in the main diagonal first for the last four symmetries
+                if (t >= 4) {
+                    int swap = row;
+                    row = col;
+                    col = swap;
+                }
+
+                // Then rotate clockwise a quarter turn at a time
+                for (int turn = 0; turn < t % 4; turn++) {
+                    int newRow = col;
+                    col = 2 - row;
+                    row = newRow;
+                }
+
+                CELLS[t][cell] = row * 3 + col;
+                INVERSE[t][row * 3 + col] = cell;
+            }
+
+            for (int mask = 1; mask <= Bitboard.FULL; mask++) {
+                int low = Integer.numberOfTrailingZeros(mask);
+                MASKS[t * (Bitboard.FULL + 1) + mask] =
+                        (short) (MASKS[t * (Bitboard.FULL + 1) + (mask & (mask - 1))] | (1 << CELLS[t][low]));
+            }
+        }
+    }
+
+    /**
+     * Returns where a square moves to under a symmetry.
+     * 
+     * @param t The symmetry (0 to 7).
+     * @param cell The square index (0 to 8).
+     * @return The square it moves to.
+     */
+    public static int cell(int t, int cell) {
+        return CELLS[t][cell];
+    }
+
+    /**
+     * Returns the square that moves to the given square under a symmetry. This maps a move
+     * found on a canonical board back onto the board it came from.
+     * 
+     * @param t The symmetry (0 to 7).
+     * @param cell The square index on the transformed board (0 to 8).
+     * @return The matching square on the original board.
+     */
+    public static int inverseCell(int t, int cell) {
+        return INVERSE[t][cell];
+    }
+
+    /**
+     * Moves every square in a mask under a symmetry.
+     * 
+     * @param t The symmetry (0 to 7).
+     * @param mask A 9-bit mask.
+     * @return The transformed mask.
+     */
+    public static int mask(int t, int mask) {
+        return MASKS[(t << 9) | mask];
+    }
+
+    /**
+     * Finds the symmetry that takes a position to its canonical form, which is the image
+     * with the smallest {@code me | opp << 9} key.
+     * 
+     * @param me Squares owned by the player to move.
+     * @param opp Squares owned by the other player.
+     * @return The symmetry (0 to 7) giving the canonical form.
+     */
+    public static int canonical(int me, int opp) {
+        int best = 0;
+        int bestKey = me | (opp << 9);
+        for (int t = 1; t < COUNT; t++) {
+            int key = mask(t, me) | (mask(t, opp) << 9);
+            if (key < bestKey) {
+                bestKey = key;
+                best = t;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,147 @@
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The {@code Tablebase} class holds the perfect move for every Noughts and Crosses position.
+ * The table is produced ahead of time by {@link TablebaseGenerator}. The {@code tablebase.bin}
+ * resource only holds canonical positions; they are expanded into a flat array of every position
+ * once at startup, so looking up a move is a single array index. If the resource is missing the
+ * table is solved in memory instead.
+ */
+public class Tablebase {
+
+    /**
+     * Number of entries in the table, one for every way of filling 9 squares with 3 states.
+     */
+    public static final int SIZE = 19683;
+
+    /**
+     * Value of a position the player to move can at best draw.
+     */
+    public static final int DRAW = 0;
+
+    /**
+     * Value of a position the player to move wins with perfect play.
+     */
+    public static final int WIN = 1;
+
+    /**
+     * Value of a position the player to move loses against perfect play.
+     */
+    public static final int LOSS = 2;
+
+    /**
+     * Value of a position that can never come up in a real game.
+     */
+    public static final int UNREACHABLE = 3;
+
+    /**
+     * Move stored for positions where there is nothing left to play.
+     */
+    public static final int NO_MOVE = 15;
+
+    /**
+     * Base-3 weight of every 9-bit mask, so {@code TERNARY[mask]} is the sum of {@code 3^i}
+     * over the squares in the mask.
+     */
+    private static final int[] TERNARY = new int[Bitboard.FULL + 1];
+
+    static {
+        for (int mask = 1; mask <= Bitboard.FULL; mask++) {
+            int cell = Integer.numberOfTrailingZeros(mask);
+            int power = 1;
+            for (int i = 0; i < cell; i++) {
+                power *= 3;
+            }
+            TERNARY[mask] = TERNARY[mask & (mask - 1)] + power;
+        }
+    }
+
+    /**
+     * The solved table, one byte per position.
+     */
+    private static final byte[] TABLE = load();
+
+    /**
+     * Returns the table index of a position, seen from the player to move. Squares owned by the
+     * player to move count as 1 and squares owned by the other player as 2 in base 3.
+     * 
+     * @param me Squares owned by the player to move.
+     * @param opp Squares owned by the other player.
+     * @return The table index, between 0 and {@link #SIZE} - 1.
+     */
+    public static int index(int me, int opp) {
+        return TERNARY[me] + 2 * TERNARY[opp];
+    }
+
+    /**
+     * Returns the perfect move for a player.
+     * 
+     * @param board The current state of the game board.
+     * @param symbol The symbol of the player to move ('x' or 'o').
+     * @return The square (0 to 8) to play, or -1 if there is nothing to play.
+     */
+    public static int bestMove(Bitboard board, char symbol) {
+        int move = TABLE[index(board.mask(symbol), board.mask(symbol == 'x' ? 'o' : 'x'))] & 15;
+        return (move == NO_MOVE) ? -1 : move;
+    }
+
+    /**
+     * Returns the value of a position for the player to move.
+     * 
+     * @param me Squares owned by the player to move.
+     * @param opp Squares owned by the other player.
+     * @return {@link #WIN}, {@link #DRAW}, {@link #LOSS} or {@link #UNREACHABLE}.
+     */
+    public static int value(int me, int opp) {
+        return (TABLE[index(me, opp)] >> 4) & 3;
+    }
+
+    /**
+     * Reads the table from the {@code tablebase.bin} resource, or solves it if the resource
+     * cannot be read. Every canonical entry is copied to all eight of its mirror images.
+     * 
+     * @return The solved table.
+     */
+    private static byte[] load() {
+        try (InputStream stream = Tablebase.class.getResourceAsStream("/tablebase.bin")) {
+            if (stream != null) {
+                DataInputStream in = new DataInputStream(stream);
+                if (in.readInt() == TablebaseGenerator.MAGIC && in.readInt() == TablebaseGenerator.VERSION) {
+                    byte[] table = new byte[SIZE];
+                    Arrays.fill(table, TablebaseGenerator.UNREACHABLE_ENTRY);
+
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        int index = in.readUnsignedShort();
+                        byte entry = in.readByte();
+
+                        // Split the base 3 index back into the two players' squares
+                        int me = 0;
+                        int opp = 0;
+                        for (int cell = 0, rest = index; cell < 9; cell++, rest /= 3) {
+                            if (rest % 3 == 1) {
+                                me |= 1 << cell;
+                            } else if (rest % 3 == 2) {
+                                opp |= 1 << cell;
+                            }
+                        }
+
+                        int move = entry & 15;
+                        for (int t = 0; t < Symmetry.COUNT; t++) {
+                            int image = index(Symmetry.mask(t, me), Symmetry.mask(t, opp));
+                            int imageMove = (move == NO_MOVE) ? NO_MOVE : Symmetry.cell(t, move);
+                            table[image] = (byte) ((entry & 0xF0) | imageMove);
+                        }
+                    }
+                    return table;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Could not read the tablebase, solving it instead: " + e.getMessage());
+        }
+        return TablebaseGenerator.solve();
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The {@code TablebaseGenerator} class solves every Noughts and Crosses position and writes the
+ * result out as the binary resource read by {@link Tablebase}. It is run once at build time:
+ * <pre>
+ * java TablebaseGenerator src/tablebase.bin
+ * </pre>
+ * Positions are solved retrograde, starting from full boards and working back to the empty one,
+ * so every position's replies are already solved by the time it is reached. Only positions that
+ * can come up in a real game and are in their {@link Symmetry} canonical form are written out;
+ * the loader fills in the mirror images.
+ */
+public class TablebaseGenerator {
+
+    /**
+     * Marker written at the start of the resource so the loader can reject stray files.
+     */
+    public static final int MAGIC = 0x4E435442; // "NCTB"
+
+    /**
+     * Version of the resource layout.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Solves every position and writes the table to the given file.
+     * 
+     * @param args The output file, {@code src/tablebase.bin} if none is given.
+     */
+    public static void main(String[] args) {
+        String path = (args.length > 0) ? args[0] : "src/tablebase.bin";
+        byte[] table = solve();
+
+        // Each entry is the 2 byte index of a canonical position followed by its 1 byte entry
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        int count = 0;
+        for (int me = 0; me <= Bitboard.FULL; me++) {
+            for (int opp = 0; opp <= Bitboard.FULL; opp++) {
+                if ((me & opp) != 0) {
+                    continue;
+                }
+                int index = Tablebase.index(me, opp);
+                int t = Symmetry.canonical(me, opp);
+                if (table[index] == UNREACHABLE_ENTRY || Symmetry.mask(t, me) != me || Symmetry.mask(t, opp) != opp) {
+                    continue;
+                }
+                entries.write(index >>> 8);
+                entries.write(index);
+                entries.write(table[index]);
+                count++;
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(path))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            entries.writeTo(out);
+        } catch (IOException e) {
+            System.out.println("Could not write the tablebase to " + path + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Wrote " + count + " canonical positions to " + path);
+    }
+
+    /**
+     * Table entry for a position that can never come up in a real game.
+     */
+    public static final byte UNREACHABLE_ENTRY = (byte) ((Tablebase.UNREACHABLE << 4) | Tablebase.NO_MOVE);
+
+    /**
+     * Solves every position. Each entry is indexed by {@link Tablebase#index(int, int)} from the
+     * point of view of the player to move and holds the value of the position in the high
+     * nibble and the best square in the low nibble. Positions that cannot be reached from the
+     * empty board hold {@link #UNREACHABLE_ENTRY}.
+     * 
+     * @return The solved table, one byte per position.
+     */
+    public static byte[] solve() {
+        byte[] table = new byte[Tablebase.SIZE];
+        int[] score = new int[Tablebase.SIZE];
+        boolean[] reachable = new boolean[Tablebase.SIZE];
+        markReachable(0, 0, reachable);
+        Arrays.fill(table, UNREACHABLE_ENTRY);
+
+        for (int pieces = 9; pieces >= 0; pieces--) {
+            for (int me = 0; me <= Bitboard.FULL; me++) {
+                for (int opp = 0; opp <= Bitboard.FULL; opp++) {
+                    int mine = Integer.bitCount(me);
+                    int theirs = Integer.bitCount(opp);
+                    if ((me & opp) != 0 || mine + theirs != pieces || (mine != theirs && mine + 1 != theirs)) {
+                        continue;
+                    }
+
+                    int index = Tablebase.index(me, opp);
+                    int free = Bitboard.FULL & ~(me | opp);
+
+                    // Skip positions no real game can reach, such as the player to move owning a line
+                    if (!reachable[index]) {
+                        continue;
+                    }
+
+                    // The other player has just won
+                    if (Bitboard.isWin(opp)) {
+                        score[index] = -(Integer.bitCount(free) + 1);
+                        table[index] = entry(Tablebase.LOSS, Tablebase.NO_MOVE);
+                        continue;
+                    }
+
+                    // Nobody won and there is nowhere left to play
+                    if (free == 0) {
+                        table[index] = entry(Tablebase.DRAW, Tablebase.NO_MOVE);
+                        continue;
+                    }
+
+                    int best = -100;
+                    int bestMove = Tablebase.NO_MOVE;
+                    for (int cell = 0; cell < 9; cell++) {
+                        int bit = 1 << cell;
+                        if ((free & bit) == 0) {
+                            continue;
+                        }
+                        int value = -score[Tablebase.index(opp, me | bit)];
+                        if (value > best) {
+                            best = value;
+                            bestMove = cell;
+                        }
+                    }
+
+                    score[index] = best;
+                    if (best > 0) {
+                        table[index] = entry(Tablebase.WIN, bestMove);
+                    } else if (best < 0) {
+                        table[index] = entry(Tablebase.LOSS, bestMove);
+                    } else {
+                        table[index] = entry(Tablebase.DRAW, bestMove);
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Marks every position that can be reached from the given one, seen from the player to move.
+     * 
+     * @param me Squares owned by the player to move.
+     * @param opp Squares owned by the other player.
+     * @param reachable Flags indexed by {@link Tablebase#index(int, int)}.
+     */
+    private static void markReachable(int me, int opp, boolean[] reachable) {
+        int index = Tablebase.index(me, opp);
+        if (reachable[index]) {
+            return;
+        }
+        reachable[index] = true;
+
+        // The game stops once someone has won
+        if (Bitboard.isWin(opp)) {
+            return;
+        }
+
+        int free = Bitboard.FULL & ~(me | opp);
+        for (int cell = 0; cell < 9; cell++) {
+            if ((free & (1 << cell)) != 0) {
+                markReachable(opp, me | (1 << cell), reachable);
+            }
+        }
+    }
+
+    /**
+     * Packs a value and a square into one table entry.
+     * 
+     * @param value One of the {@link Tablebase} value constants.
+     * @param move The best square (0 to 8) or {@link Tablebase#NO_MOVE}.
+     * @return The packed entry.
+     */
+    private static byte entry(int value, int move) {
+        return (byte) ((value << 4) | move);
+    }
+}
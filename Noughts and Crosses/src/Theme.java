@@ -0,0 +1,112 @@
+import java.awt.Color;
+
+/**
+ * The {@code Theme} class is an immutable snapshot of the colours chosen in the
+ * {@link ColourPicker}. It holds the background colour, the inverted foreground colour used
+ * for text and symbols, and the colours derived from them, such as the grid lines. Every colour
+ * is worked out once, when the theme is built. A new theme is only built when a slider value
+ * actually changes, and the same instance is shared by every component that is coloured with it,
+ * so a component can tell that the colours changed by comparing the instance alone.
+ */
+public final class Theme {
+
+    /**
+     * The red component of the background (0 to 255).
+     */
+    private final int red;
+
+    /**
+     * The green component of the background (0 to 255).
+     */
+    private final int green;
+
+    /**
+     * The blue component of the background (0 to 255).
+     */
+    private final int blue;
+
+    /**
+     * The background colour.
+     */
+    private final Color background;
+
+    /**
+     * The foreground colour, which is the background with every component inverted.
+     */
+    private final Color foreground;
+
+    /**
+     * The colour of the grid lines, two thirds of the way from the background to the foreground
+     * so that the grid stands back from the symbols.
+     */
+    private final Color line;
+
+    /**
+     * Creates a theme from a background colour.
+     * 
+     * @param red The red component of the background (0 to 255).
+     * @param green The green component of the background (0 to 255).
+     * @param blue The blue component of the background (0 to 255).
+     */
+    public Theme(int red, int green, int blue) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.background = new Color(red, green, blue);
+        this.foreground = new Color(255 - red, 255 - green, 255 - blue);
+        this.line = new Color(blend(red, 255 - red), blend(green, 255 - green), blend(blue, 255 - blue));
+    }
+
+    /**
+     * Mixes one component of the background with the same component of the foreground.
+     *
+     * @param back The background component (0 to 255).
+     * @param fore The foreground component (0 to 255).
+     * @return The component two thirds of the way from {@code back} to {@code fore}.
+     */
+    private static int blend(int back, int fore) {
+        return (back + 2 * fore) / 3;
+    }
+
+    /**
+     * Returns a theme with a new background colour, or this theme if the colour has not changed.
+     * 
+     * @param newRed The red component of the background (0 to 255).
+     * @param newGreen The green component of the background (0 to 255).
+     * @param newBlue The blue component of the background (0 to 255).
+     * @return A theme for the given background colour.
+     */
+    public Theme with(int newRed, int newGreen, int newBlue) {
+        if (newRed == red && newGreen == green && newBlue == blue) {
+            return this;
+        }
+        return new Theme(newRed, newGreen, newBlue);
+    }
+
+    /**
+     * Returns the background colour.
+     * 
+     * @return The background colour.
+     */
+    public Color getBackground() {
+        return background;
+    }
+
+    /**
+     * Returns the foreground colour used for text and symbols.
+     * 
+     * @return The inverted background colour.
+     */
+    public Color getForeground() {
+        return foreground;
+    }
+
+    /**
+     * Returns the colour of the grid lines.
+     * 
+     * @return A blend of the background and foreground colours.
+     */
+    public Color getLine() {
+        return line;
+    }
+}